@@ -467,9 +467,7 @@ operator fun Any.get(key: String): Any {
 fun generateConsoleLoggerActionsXml(): String {
     val actionsXml: StringBuilder = StringBuilder()
     actionsXml.append("<!-- Include actions XML -->\n")
-    for (i in 1..9) {
-        actionsXml.append(createActionXml(i))
-    }
+    actionsXml.append("\n             <!-- the actions of the templates are registered at runtime by PatternActions, one per template of the active preset -->\n")
 
     actionsXml.append("\n            <action id=\"com.github.bgomar.consolelogger.ConsoleLoggerRemove\" class=\"com.github.bgomar.consolelogger.ConsoleLoggerRemove\" text=\"0\"\n")
     actionsXml.append("                    description=\"Remove console.log() generate by ConsoleLogger plugin\">\n")
@@ -482,23 +480,20 @@ fun generateConsoleLoggerActionsXml(): String {
     actionsXml.append("                 <keyboard-shortcut keymap=\"Mac OS X\" first-keystroke=\"ctrl alt BACK_QUOTE\"/>\n")
     actionsXml.append("            </action>\n")
 
+    actionsXml.append("\n            <action id=\"com.github.bgomar.consolelogger.UpdateProjectLogLinesAction\" class=\"com.github.bgomar.consolelogger.UpdateProjectLogLinesAction\" text=\"UpdateProjectLogLinesAction\" description=\"UpdateProjectLogLinesAction\">\n")
+    actionsXml.append("                 <keyboard-shortcut keymap=\"\$default\" first-keystroke=\"ctrl alt shift BACK_QUOTE\"/>\n")
+    actionsXml.append("                 <keyboard-shortcut keymap=\"Mac OS X\" first-keystroke=\"ctrl alt shift BACK_QUOTE\"/>\n")
+    actionsXml.append("            </action>\n")
+
+    actionsXml.append("\n            <action id=\"com.github.bgomar.consolelogger.LogAllInScopeAction\" class=\"com.github.bgomar.consolelogger.LogAllInScopeAction\" text=\"Log All in Scope\" description=\"Generate a console.log() for every parameter and variable of the function\">\n")
+    actionsXml.append("                 <keyboard-shortcut keymap=\"\$default\" first-keystroke=\"ctrl alt shift 0\"/>\n")
+    actionsXml.append("                 <keyboard-shortcut keymap=\"Mac OS X\" first-keystroke=\"ctrl alt shift 0\"/>\n")
+    actionsXml.append("            </action>\n")
+
     actionsXml.append("            <!-- Include actions end -->")
     return actionsXml.toString()
 }
 
-fun createActionXml(i: Int): String {
-    val actionXml: StringBuilder = StringBuilder()
-    actionXml.append("\n             <action id=\"com.github.bgomar.consolelogger.add").append(i).append("\" class=\"com.github.bgomar.consolelogger" +
-            ".ConsoleLoggerAction").append("\"\n")
-    actionXml.append("                    text=\"").append(i-1).append("\"\n")
-    actionXml.append("                    description=\"Generate a console.log() for that variable\">\n")
-    actionXml.append("                 <keyboard-shortcut keymap=\"\$default\" first-keystroke=\"ctrl alt ").append(i).append("\"/>\n")
-    actionXml.append("                 <keyboard-shortcut keymap=\"Mac OS X\" first-keystroke=\"ctrl alt ").append(i).append("\"/>\n")
-    actionXml.append("             </action>\n")
-
-    return actionXml.toString()
-}
-
 fun updatePluginXml() {
     val generatedActionsXml = generateConsoleLoggerActionsXml()
     val pluginXmlFile = File("src/main/resources/META-INF/plugin.xml")
@@ -2,6 +2,7 @@ package com.github.bgomar.bgconsolelogger.tools;
 
 import com.github.bgomar.bgconsolelogger.toolwindow.setup.PropertiesConsoleLoggerToolSetup;
 import com.intellij.openapi.ui.DialogPanel;
+import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBTextField;
 import org.jetbrains.annotations.NotNull;
 
@@ -23,6 +24,7 @@ public class ConsoleLoggerConfigurableUI extends PropertiesConsoleLoggerToolSetu
                                        JButton propertiesConsoleLoggerLoad1Button,
                                        JButton propertiesConsoleLoggerCancelButton,
                                        JButton propertiesConsoleLoggerRecheckButton,
+                                       JButton propertiesConsoleLoggerRecheckProjectButton,
                                        JButton propertiesConsoleLoggerDefaultButton1,
                                        JButton propertiesConsoleLoggerDefaultButton2,
                                        JButton propertiesConsoleLoggerDefaultButton3,
@@ -46,6 +48,7 @@ public class ConsoleLoggerConfigurableUI extends PropertiesConsoleLoggerToolSetu
                 propertiesConsoleLoggerLoad1Button,
                 propertiesConsoleLoggerCancelButton,
                 propertiesConsoleLoggerRecheckButton,
+                propertiesConsoleLoggerRecheckProjectButton,
                 propertiesConsoleLoggerDefaultButton1,
                 propertiesConsoleLoggerDefaultButton2,
                 propertiesConsoleLoggerDefaultButton3,
@@ -58,6 +61,10 @@ public class ConsoleLoggerConfigurableUI extends PropertiesConsoleLoggerToolSetu
     }
 
     public static class ConsoleLoggerConfig extends PropertiesConsoleLoggerToolSetup {
+        private final JBCheckBox trackLineNumbers = new JBCheckBox("Update the line numbers of the logs that move");
+        // 1 based like the shortcuts, the setting is the index
+        private final SpinnerNumberModel scopeLogPattern = new SpinnerNumberModel(1, 1, 1, 1);
+
         public ConsoleLoggerConfig(@NotNull ConsoleLoggerSettings setting) {
             super();
 
@@ -89,8 +96,52 @@ public class ConsoleLoggerConfigurableUI extends PropertiesConsoleLoggerToolSetu
                 gbc.gridx = 0; // Reset grid column for the next row
                 gbc.gridy++;
             }
+
+            gbc.gridwidth = 3;
+            gbc.anchor = GridBagConstraints.WEST;
+            trackLineNumbers.setToolTipText("Rewrite the {LN} of the generated logs when the lines above them are added or removed");
+            ui.add(trackLineNumbers, gbc);
+            gbc.gridy++;
+
+            JPanel scopePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+            scopePanel.add(new JLabel("Pattern of Log All in Scope: "));
+            JSpinner scopeSpinner = new JSpinner(scopeLogPattern);
+            scopeSpinner.setToolTipText("The pattern of the active set used by Log All in Scope");
+            scopePanel.add(scopeSpinner);
+            ui.add(scopePanel, gbc);
+            gbc.gridy++;
+        }
+
+        @Override
+        public void reset(@NotNull ConsoleLoggerSettings settings) {
+            super.reset(settings);
+            ConsoleLoggerSettings.Snapshot snapshot = ConsoleLoggerSettings.snapshot();
+            trackLineNumbers.setSelected(snapshot.trackLineNumbers());
+            scopeLogPattern.setMaximum(ConsoleLoggerSettings.getLogPatternsCount());
+            scopeLogPattern.setValue(scopeIndex(snapshot) + 1);
         }
 
+        @Override
+        public boolean isModified(@NotNull ConsoleLoggerSettings settings) {
+            ConsoleLoggerSettings.Snapshot snapshot = ConsoleLoggerSettings.snapshot();
+            return super.isModified(settings)
+                    || trackLineNumbers.isSelected() != snapshot.trackLineNumbers()
+                    || scopeLogPattern.getNumber().intValue() - 1 != scopeIndex(snapshot);
+        }
+
+        @Override
+        public void apply(@NotNull ConsoleLoggerSettings settings) {
+            super.apply(settings);
+            ConsoleLoggerSettings.setTrackLineNumbers(trackLineNumbers.isSelected());
+            ConsoleLoggerSettings.setScopeLogPattern(scopeLogPattern.getNumber().intValue() - 1);
+        }
+
+        // the index of the pattern Log All in Scope actually uses, the last one if out of bounds
+        private static int scopeIndex(ConsoleLoggerSettings.Snapshot snapshot) {
+            int index = snapshot.scopeLogPattern();
+            int count = ConsoleLoggerSettings.getLogPatternsCount();
+            return index >= 0 && index < count ? index : count - 1;
+        }
 
     }
 }
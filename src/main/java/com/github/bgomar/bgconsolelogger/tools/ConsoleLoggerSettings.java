@@ -5,17 +5,34 @@ import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
+import com.intellij.util.messages.Topic;
 import com.intellij.util.xmlb.XmlSerializerUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Service
 @State(name = "ConsoleLoggerSettings", storages = {@Storage("consolelogger.xml")})
 public final class ConsoleLoggerSettings implements PersistentStateComponent<ConsoleLoggerSettings> {
 
+    /**
+     * Notified on the application message bus whenever a template or preset is changed or the settings are loaded.
+     */
+    public interface PatternsListener {
+        void patternsChanged();
+
+        /**
+         * The active preset changed, the patterns themselves did not.
+         */
+        default void presetSwitched() {
+        }
+    }
+
+    public static final Topic<PatternsListener> PATTERNS_TOPIC = Topic.create("ConsoleLogger patterns", PatternsListener.class);
+
     public static final String DEFAULT_PATTERN_1 = "console.log(\"%c 1 --> {LN}||{FN}\\n $$: \",\"color:#f0f;\", $$);";
     public static final String DEFAULT_PATTERN_2 = "console.log(\"%c 2 --> {LN}||{FN}\\n $$: \",\"color:#0f0;\", $$);";
     public static final String DEFAULT_PATTERN_3 = "console.log(\"%c 3 --> {LN}||{FN}\\n $$: \",\"color:#ff0;\", $$);";
@@ -36,48 +53,47 @@ public final class ConsoleLoggerSettings implements PersistentStateComponent<Con
     public static final String DEFAULT_PATTERN_17 = "console.log(\"%c 17 --> {LN}||{FN}\\n $$: \",\"color:#fca;\", $$);";
     public static final String DEFAULT_PATTERN_18 = "console.log(\"%c 18 --> {LN}||{FN}\\n $$: \",\"color:#acf;\", $$);";
 
-    public static final String ACTIVE_PATTERN_1 = "console.log(\"%c 1 --> {LN}||{FN}\\n $$: \",\"color:#f0f;\", $$);";
-    public static final String ACTIVE_PATTERN_2 = "console.log(\"%c 2 --> {LN}||{FN}\\n $$: \",\"color:#0f0;\", $$);";
-    public static final String ACTIVE_PATTERN_3 = "console.log(\"%c 3 --> {LN}||{FN}\\n $$: \",\"color:#ff0;\", $$);";
-    public static final String ACTIVE_PATTERN_4 = "console.log(\"%c 4 --> {LN}||{FN}\\n $$: \",\"color:#f00;\", $$);";
-    public static final String ACTIVE_PATTERN_5 = "console.log(\"%c 5 --> {LN}||{FN}\\n $$: \",\"color:#0ff;\", $$);";
-    public static final String ACTIVE_PATTERN_6 = "console.log(\"%c 6 --> {LN}||{FN}\\n $$: \",\"color:#00f;\", $$);";
-    public static final String ACTIVE_PATTERN_7 = "console.log(\"%c 7 --> {LN}||{FN}\\n $$: \",\"color:#acf;\", $$);";
-    public static final String ACTIVE_PATTERN_8 = "console.log(\"%c 8 --> {LN}||{FN}\\n $$: \",\"color:#fca;\", $$);";
-    public static final String ACTIVE_PATTERN_9 = "console.log(\"%c 9 --> {LN}||{FN}\\n $$: \",\"color:#acf;\", $$);";
-
-    public List<String> patterns = new ArrayList<>(Arrays.asList(
-            ACTIVE_PATTERN_1,
-            ACTIVE_PATTERN_2,
-            ACTIVE_PATTERN_3,
-            ACTIVE_PATTERN_4,
-            ACTIVE_PATTERN_5,
-            ACTIVE_PATTERN_6,
-            ACTIVE_PATTERN_7,
-            ACTIVE_PATTERN_8,
-            ACTIVE_PATTERN_9,
-            DEFAULT_PATTERN_1,
-            DEFAULT_PATTERN_2,
-            DEFAULT_PATTERN_3,
-            DEFAULT_PATTERN_4,
-            DEFAULT_PATTERN_5,
-            DEFAULT_PATTERN_6,
-            DEFAULT_PATTERN_7,
-            DEFAULT_PATTERN_8,
-            DEFAULT_PATTERN_9,
-            DEFAULT_PATTERN_10,
-            DEFAULT_PATTERN_11,
-            DEFAULT_PATTERN_12,
-            DEFAULT_PATTERN_13,
-            DEFAULT_PATTERN_14,
-            DEFAULT_PATTERN_15,
-            DEFAULT_PATTERN_16,
-            DEFAULT_PATTERN_17,
-            DEFAULT_PATTERN_18
+    public static final String PRESET_1 = "set1";
+    public static final String PRESET_2 = "set2";
+
+    private static final List<String> DEFAULT_SET_1 = List.of(
+            DEFAULT_PATTERN_1, DEFAULT_PATTERN_2, DEFAULT_PATTERN_3,
+            DEFAULT_PATTERN_4, DEFAULT_PATTERN_5, DEFAULT_PATTERN_6,
+            DEFAULT_PATTERN_7, DEFAULT_PATTERN_8, DEFAULT_PATTERN_9);
+    private static final List<String> DEFAULT_SET_2 = List.of(
+            DEFAULT_PATTERN_10, DEFAULT_PATTERN_11, DEFAULT_PATTERN_12,
+            DEFAULT_PATTERN_13, DEFAULT_PATTERN_14, DEFAULT_PATTERN_15,
+            DEFAULT_PATTERN_16, DEFAULT_PATTERN_17, DEFAULT_PATTERN_18);
+
+    public volatile List<PatternPreset> presets = new ArrayList<>(List.of(
+            new PatternPreset(PRESET_1, "Set 1", DEFAULT_SET_1),
+            new PatternPreset(PRESET_2, "Set 2", DEFAULT_SET_2)
     ));
 
+    public String activePreset = PRESET_1;
+
+    // the fixed 27 slots of the versions before the presets: active patterns, Set 1 and Set 2, migrated on load
+    @Deprecated
+    public List<String> patterns = new ArrayList<>();
+
     public String version = "0.0.29";
 
+    // rewrite the {LN} of the generated logs while their lines move
+    public boolean trackLineNumbers = true;
+
+    // index of the pattern used by "Log All in Scope"
+    public int scopeLogPattern = 0;
+
+    /**
+     * What the background readers need of the settings, immutable. A new snapshot is published on every change,
+     * so a scan reads the same templates from start to end without taking a lock.
+     */
+    public record Snapshot(PatternRegistry patterns, boolean trackLineNumbers, int scopeLogPattern) {
+    }
+
+    // the last published snapshot, read by the hot paths without going through the service lookup
+    private static final AtomicReference<Snapshot> SNAPSHOT = new AtomicReference<>();
+
     public static ConsoleLoggerSettings getInstance() {
         return ApplicationManager.getApplication().getService(ConsoleLoggerSettings.class);
     }
@@ -90,32 +106,235 @@ public final class ConsoleLoggerSettings implements PersistentStateComponent<Con
     @Override
     public void loadState(@NotNull ConsoleLoggerSettings state) {
         XmlSerializerUtil.copyBean(state, this);
+        synchronized (this) {
+            migrateLegacyPatterns();
+            Snapshot previous = SNAPSHOT.get();
+            publish(PatternRegistry.build(presets, activePreset, previous != null ? previous.patterns() : null));
+        }
+        firePatternsChanged();
+    }
+
+    private void migrateLegacyPatterns() {
+        List<PatternPreset> migrated = new ArrayList<>(presets);
+        if (patterns.size() >= 27) {
+            List<String> active = patterns.subList(0, 9);
+            List<String> set1 = patterns.subList(9, 18);
+            List<String> set2 = patterns.subList(18, 27);
+            migrated = new ArrayList<>(List.of(new PatternPreset(PRESET_1, "Set 1", set1), new PatternPreset(PRESET_2, "Set 2", set2)));
+            if (active.equals(set1)) {
+                activePreset = PRESET_1;
+            } else if (active.equals(set2)) {
+                activePreset = PRESET_2;
+            } else {
+                migrated.add(0, new PatternPreset("active", "Active", active));
+                activePreset = "active";
+            }
+        }
+        patterns = new ArrayList<>();
+        migrated.removeIf(preset -> preset.patterns.isEmpty());
+        if (migrated.isEmpty()) {
+            migrated.add(new PatternPreset(PRESET_1, "Set 1", DEFAULT_SET_1));
+        }
+        presets = migrated;
+    }
+
+    /**
+     * The current snapshot of the settings, the same instance until something changes.
+     */
+    public static Snapshot snapshot() {
+        Snapshot current = SNAPSHOT.get();
+        return current != null ? current : getInstance().publishInitial();
+    }
+
+    private synchronized Snapshot publishInitial() {
+        Snapshot current = SNAPSHOT.get();
+        return current != null ? current : publish(PatternRegistry.build(presets, activePreset, null));
+    }
+
+    // callers hold the lock of the settings, so snapshots are published in the order of the edits
+    private Snapshot publish(PatternRegistry registry) {
+        Snapshot snapshot = new Snapshot(registry, trackLineNumbers, scopeLogPattern);
+        SNAPSHOT.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * The presets and their compiled patterns. The registry is the same instance until a preset changes.
+     */
+    public static PatternRegistry getRegistry() {
+        return snapshot().patterns();
     }
 
-    // Modify getPattern to retrieve from the List
+    /**
+     * The pattern of the active preset at the index, the last one if out of bounds.
+     */
     public static String getPattern(int index) {
+        return getRegistry().getTemplate(index).getSource();
+    }
+
+    public static LogTemplate getCompiledPattern(int index) {
+        return getRegistry().getTemplate(index);
+    }
+
+    /**
+     * The distinct patterns of all the presets, compiled. The list is the same instance until a preset changes.
+     */
+    public static List<LogTemplate> getCompiledPatterns() {
+        return getRegistry().getAllTemplates();
+    }
+
+    public static int getLogPatternsCount() {
+        return getRegistry().getActive().patterns.size();
+    }
+
+    /**
+     * The default of the pattern at the index of a preset, Set 2 has its own.
+     */
+    public static String getDefaultPattern(String presetId, int index) {
+        List<String> defaults = PRESET_2.equals(presetId) ? DEFAULT_SET_2 : DEFAULT_SET_1;
+        return defaults.get(index >= 0 && index < defaults.size() ? index : defaults.size() - 1);
+    }
+
+    /**
+     * Sets the pattern at the index of the active preset, appends it if out of bounds.
+     */
+    public static void setPattern(int index, String pattern) {
+        String id = getRegistry().getActive().id;
+        updatePreset(id, preset -> {
+            if (index >= 0 && index < preset.patterns.size()) {
+                preset.patterns.set(index, pattern);
+            } else {
+                preset.patterns.add(pattern);
+            }
+        });
+    }
+
+    /**
+     * Replaces the patterns of a preset, creating it if there is none with the id.
+     */
+    public static void setPresetPatterns(String id, String name, List<String> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("A preset needs at least one pattern");
+        }
         ConsoleLoggerSettings settings = getInstance();
-        if (index >= 0 && index < settings.patterns.size()) {
-            return settings.patterns.get(index);
+        boolean created;
+        synchronized (settings) {
+            created = settings.presets.stream().noneMatch(preset -> preset.id.equals(id));
+            if (created) {
+                List<PatternPreset> presets = new ArrayList<>(settings.presets);
+                presets.add(new PatternPreset(id, name, patterns));
+                settings.replacePresets(presets);
+            }
+        }
+        if (created) {
+            firePatternsChanged();
         } else {
-            return settings.patterns.get(settings.patterns.size() - 1);  // Default to last if out of bounds
+            updatePreset(id, preset -> {
+                preset.name = name;
+                preset.patterns = new ArrayList<>(patterns);
+            });
         }
     }
 
-    public static int getLogPatternsCount() {
+    /**
+     * Removes a preset, the last one is kept. The first preset becomes active if the removed one was.
+     */
+    public static void removePreset(String id) {
         ConsoleLoggerSettings settings = getInstance();
-        return settings.patterns.size();  // Default to last if out of bounds
+        synchronized (settings) {
+            List<PatternPreset> presets = new ArrayList<>(settings.presets);
+            if (presets.size() <= 1 || !presets.removeIf(preset -> preset.id.equals(id))) {
+                return;
+            }
+            if (settings.activePreset.equals(id)) {
+                settings.activePreset = presets.get(0).id;
+            }
+            settings.replacePresets(presets);
+        }
+        firePatternsChanged();
+    }
 
+    /**
+     * Makes a preset the active one. Nothing is copied nor compiled, the registry is swapped for one pointing at it.
+     */
+    public static void switchPreset(String id) {
+        ConsoleLoggerSettings settings = getInstance();
+        synchronized (settings) {
+            PatternRegistry current = getRegistry();
+            PatternRegistry switched = current.withActive(id);
+            if (switched == current) {
+                return;
+            }
+            settings.activePreset = id;
+            settings.publish(switched);
+        }
+        ApplicationManager.getApplication().getMessageBus().syncPublisher(PATTERNS_TOPIC).presetSwitched();
     }
 
-    // Modify setPattern to update the List
-    public static void setPattern(int index, String pattern) {
+    /**
+     * Turns the rewriting of the {LN} of the moved logs on or off, the trackers read it on their next update.
+     */
+    public static void setTrackLineNumbers(boolean track) {
         ConsoleLoggerSettings settings = getInstance();
-        if (index >= 0 && index < settings.patterns.size()) {
-            settings.patterns.set(index, pattern);
-        } else {
-            settings.patterns.add(pattern);  // Add to the list if index is out of bounds
+        synchronized (settings) {
+            if (settings.trackLineNumbers == track) {
+                return;
+            }
+            settings.trackLineNumbers = track;
+            settings.publish(getRegistry());
+        }
+    }
+
+    /**
+     * Sets the index of the pattern used by "Log All in Scope", the last pattern is used if out of bounds.
+     */
+    public static void setScopeLogPattern(int index) {
+        ConsoleLoggerSettings settings = getInstance();
+        synchronized (settings) {
+            if (settings.scopeLogPattern == index) {
+                return;
+            }
+            settings.scopeLogPattern = index;
+            settings.publish(getRegistry());
         }
     }
-}
 
+    /**
+     * Applies the update to a copy of the preset, then swaps in a new list of presets holding the copy:
+     * the lists already handed out, to the serializer among others, are never modified.
+     */
+    private static void updatePreset(String id, Consumer<PatternPreset> update) {
+        ConsoleLoggerSettings settings = getInstance();
+        synchronized (settings) {
+            List<PatternPreset> presets = new ArrayList<>(settings.presets);
+            int index = -1;
+            for (int i = 0; i < presets.size() && index < 0; i++) {
+                if (presets.get(i).id.equals(id)) {
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            PatternPreset before = presets.get(index);
+            PatternPreset updated = before.copy();
+            update.accept(updated);
+            if (before.name.equals(updated.name) && before.patterns.equals(updated.patterns)) {
+                return;
+            }
+            presets.set(index, updated);
+            settings.replacePresets(presets);
+        }
+        firePatternsChanged();
+    }
+
+    private void replacePresets(List<PatternPreset> replacement) {
+        presets = replacement;
+        Snapshot previous = SNAPSHOT.get();
+        publish(PatternRegistry.build(presets, activePreset, previous != null ? previous.patterns() : null));
+    }
+
+    private static void firePatternsChanged() {
+        ApplicationManager.getApplication().getMessageBus().syncPublisher(PATTERNS_TOPIC).patternsChanged();
+    }
+}
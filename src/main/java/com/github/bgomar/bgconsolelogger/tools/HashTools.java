@@ -2,15 +2,23 @@ package com.github.bgomar.bgconsolelogger.tools;
 
 import com.github.bgomar.bgconsolelogger.tools.hash.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.security.SecureRandom;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
 
 public class HashTools {
     private static SecureRandom random = new SecureRandom(UUID.randomUUID().toString().getBytes());
-    private static final Map<String, HashMethod> hashMethods = new HashMap<>();
+    private static final Map<String, HashMethod> hashMethods = new LinkedHashMap<>();
 
     static {
         registerHashMethod(new MD5HashMethod());
@@ -18,6 +26,9 @@ public class HashTools {
         registerHashMethod(new SHA256HashMethod());
         registerHashMethod(new SHA384HashMethod());
         registerHashMethod(new SHA512HashMethod());
+        registerHashMethod(new CRC32CHashMethod());
+        registerHashMethod(new XXHash32HashMethod());
+        registerHashMethod(new Murmur3HashMethod());
         for (BCryptVersion version : BCryptVersion.values()) {
             registerHashMethod(new BCryptHashMethod(version));
         }
@@ -43,10 +54,49 @@ public class HashTools {
         return generateHash(SHA512HashMethod.NAME, input);
     }
 
+    public static String generateCRC32C(String input) {
+        return generateHash(CRC32CHashMethod.NAME, input);
+    }
+
+    public static String generateXXHash32(String input) {
+        return generateHash(XXHash32HashMethod.NAME, input);
+    }
+
+    public static String generateMurmur3(String input) {
+        return generateHash(Murmur3HashMethod.NAME, input);
+    }
+
     public static String generateBCrypt(String input, BCryptVersion version) {
         return generateHash(version.name(), input);
     }
 
+    public static String generateBCrypt(String input, BCryptVersion version, int cost) {
+        return ((BCryptHashMethod) hashMethods.get(version.name()))
+            .generateHash(input, cost)
+            .orElse("Error: " + input);
+    }
+
+    /**
+     * The hex hashes of the file by every method hashing bytes, in one memory-mapped pass.
+     */
+    public static Map<String, String> hashFile(Path file, LongConsumer progress) throws IOException {
+        return FileHasher.hashFile(file, List.copyOf(hashMethods.values()), progress);
+    }
+
+    /**
+     * A hasher with every method hashing bytes, for a text hashed again after each of its edits.
+     */
+    public static IncrementalHasher newIncrementalHasher() {
+        return new IncrementalHasher(List.copyOf(hashMethods.values()));
+    }
+
+    /**
+     * The throughput in MB/s of every method hashing bytes on this machine, takes a few seconds.
+     */
+    public static Map<String, Double> benchmark() {
+        return HashBenchmark.run(List.copyOf(hashMethods.values()));
+    }
+
     private static void registerHashMethod(HashMethod method) {
         hashMethods.put(method.name(), method);
     }
@@ -59,25 +109,92 @@ public class HashTools {
             .orElse("Error: " + input);
     }
 
-    public static String verifyPassword(String input, String hash) {
-        if (input.isBlank()) {
-            return "Password is empty";
+    /**
+     * The result of verifying a password against a hash, the method is null if the hash format is unknown.
+     */
+    public record Verification(String input, String hash, @Nullable String method, boolean valid) {
+    }
+
+    /**
+     * The methods that may have produced the hash, told by its format: the $2a$, $2b$ and $2y$ prefixes of BCrypt
+     * and the hex length of the digests. The 8 hex characters of the 32-bit checksums fit all three of them.
+     * Empty if the format is unknown.
+     */
+    public static List<HashMethod> detectMethods(String hash) {
+        if (hash.length() > 4 && hash.startsWith("$2") && hash.charAt(3) == '$') {
+            return switch (hash.charAt(2)) {
+                case 'a' -> List.of(hashMethods.get(BCryptVersion.BCryptVersion2a.name()));
+                case 'b' -> List.of(hashMethods.get(BCryptVersion.BCryptVersion2b.name()));
+                case 'y' -> List.of(hashMethods.get(BCryptVersion.BCryptVersion2y.name()));
+                default -> List.of();
+            };
         }
-        if (hash.isBlank()) {
-            return "Hash is empty";
+        for (int i = 0; i < hash.length(); i++) {
+            if (Character.digit(hash.charAt(i), 16) < 0) {
+                return List.of();
+            }
         }
-        // has to do that as BCrypt 2Y accepts all
-        if (hash.startsWith("$2a$") && hashMethods.get(BCryptVersion.BCryptVersion2a.name()).match(input, hash)) {
-            return "Password is valid for " + BCryptVersion.BCryptVersion2a.name();
+        return switch (hash.length()) {
+            case 8 -> List.of(hashMethods.get(CRC32CHashMethod.NAME), hashMethods.get(XXHash32HashMethod.NAME),
+                hashMethods.get(Murmur3HashMethod.NAME));
+            case 32 -> List.of(hashMethods.get(MD5HashMethod.NAME));
+            case 40 -> List.of(hashMethods.get(SHA1HashMethod.NAME));
+            case 64 -> List.of(hashMethods.get(SHA256HashMethod.NAME));
+            case 96 -> List.of(hashMethods.get(SHA384HashMethod.NAME));
+            case 128 -> List.of(hashMethods.get(SHA512HashMethod.NAME));
+            default -> List.of();
+        };
+    }
+
+    /**
+     * Verifies the password with each method matching the format of the hash. The method of the result is the one
+     * that matched, or all the candidates when none did.
+     */
+    public static Verification verify(String input, String hash) {
+        String trimmed = hash.trim();
+        List<HashMethod> methods = detectMethods(trimmed);
+        if (methods.isEmpty()) {
+            return new Verification(input, hash, null, false);
         }
-        if (hash.startsWith("$2b$") && hashMethods.get(BCryptVersion.BCryptVersion2b.name()).match(input, hash)) {
-            return "Password is valid for " + BCryptVersion.BCryptVersion2b.name();
+        for (HashMethod method : methods) {
+            // the digests are generated in lower case
+            String normalized = method instanceof BCryptHashMethod ? trimmed : trimmed.toLowerCase(Locale.ROOT);
+            boolean valid;
+            try {
+                valid = method.match(input, normalized);
+            } catch (RuntimeException e) {
+                // a BCrypt hash with a valid prefix but a malformed body
+                valid = false;
+            }
+            if (valid) {
+                return new Verification(input, hash, method.name(), true);
+            }
         }
-        for (HashMethod method : hashMethods.values()) {
-            if (method.match(input, hash)) {
-                return "Password is valid for " + method.name();
+        return new Verification(input, hash, methods.stream().map(HashMethod::name).collect(Collectors.joining(" / ")), false);
+    }
+
+    /**
+     * Reads one password and hash per line, separated by the last tab or space of the line.
+     * Blank lines and lines without a separator are skipped.
+     */
+    public static List<Map.Entry<String, String>> parsePasswordHashPairs(String text) {
+        List<Map.Entry<String, String>> pairs = new ArrayList<>();
+        for (String line : text.split("\\R")) {
+            String trimmed = line.strip();
+            int separator = Math.max(trimmed.lastIndexOf('\t'), trimmed.lastIndexOf(' '));
+            if (separator > 0) {
+                pairs.add(Map.entry(trimmed.substring(0, separator).strip(), trimmed.substring(separator + 1)));
             }
         }
-        return "Unable to verify password";
+        return pairs;
+    }
+
+    /**
+     * Verifies the pairs in parallel across the cores, the results are in the order of the pairs.
+     */
+    public static List<Verification> verifyAll(List<Map.Entry<String, String>> pairs) {
+        return pairs.parallelStream()
+            .map(pair -> verify(pair.getKey(), pair.getValue()))
+            .toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,374 @@
+package com.github.bgomar.bgconsolelogger.tools;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A log pattern of the settings parsed once into tokens.
+ * Holds the regex matching the logs generated from it and renders new logs without re-parsing.
+ */
+public final class LogTemplate {
+
+    public static final String VARIABLE = "$$";
+    public static final String FILE_NAME = "{FN}";
+    public static final String FILE_PATH = "{FP}";
+    public static final String LINE_NUMBER = "{LN}";
+    public static final String CARRIAGE_RETURN = "<CR>";
+
+    // name of the regex group holding the `Line: N` fragment of the first {LN}
+    public static final String LINE_NUMBER_GROUP = "ln";
+
+    public enum TokenType {
+        TEXT, VARIABLE, FILE_NAME, FILE_PATH, LINE_NUMBER, CARRIAGE_RETURN
+    }
+
+    /**
+     * A piece of the template: literal text or a placeholder, at the given offset of the source.
+     */
+    public record Token(TokenType type, String text, int offset) {
+    }
+
+    /**
+     * A rendered log and the offsets in it where each $$ was filled in, in ascending order.
+     */
+    public record Rendered(String text, int[] variableOffsets) {
+    }
+
+    // reused by the renders of a thread, the rendered text is copied out of it once
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String source;
+    private final List<Token> tokens;
+    private final Pattern pattern;
+    private final String head;
+    private final boolean hasLineNumber;
+    private final int variableCount;
+    // runs of adjacent literal text and line numbers, separated by the wildcards of $$, {FN} and {FP}
+    private final String[][] blocks;
+    private final boolean leadingWildcard;
+
+    private LogTemplate(String source) {
+        this.source = source;
+        this.tokens = Collections.unmodifiableList(tokenize(source));
+        this.pattern = Pattern.compile(toRegex(tokens));
+        this.hasLineNumber = tokens.stream().anyMatch(token -> token.type() == TokenType.LINE_NUMBER);
+        this.variableCount = (int) tokens.stream().filter(token -> token.type() == TokenType.VARIABLE).count();
+        this.blocks = toBlocks(tokens);
+        this.leadingWildcard = tokens.stream()
+                .filter(token -> token.type() != TokenType.CARRIAGE_RETURN)
+                .findFirst()
+                .map(token -> isWildcard(token.type()))
+                .orElse(false);
+
+        int headEnd = tokens.isEmpty() || tokens.get(0).type() != TokenType.TEXT ? 0 : tokens.get(0).text().length();
+        int lineBreak = source.indexOf('\n');
+        this.head = source.substring(0, lineBreak >= 0 ? Math.min(headEnd, lineBreak) : headEnd);
+    }
+
+    public static LogTemplate compile(@NotNull String source) {
+        return new LogTemplate(source);
+    }
+
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int textStart = 0;
+        int offset = 0;
+        while (offset < source.length()) {
+            TokenType placeholder = placeholderAt(source, offset);
+            if (placeholder == null) {
+                offset++;
+                continue;
+            }
+            if (textStart < offset) {
+                tokens.add(new Token(TokenType.TEXT, source.substring(textStart, offset), textStart));
+            }
+            String text = placeholderText(placeholder);
+            tokens.add(new Token(placeholder, text, offset));
+            offset += text.length();
+            textStart = offset;
+        }
+        if (textStart < source.length()) {
+            tokens.add(new Token(TokenType.TEXT, source.substring(textStart), textStart));
+        }
+        return tokens;
+    }
+
+    private static TokenType placeholderAt(String source, int offset) {
+        if (source.startsWith(VARIABLE, offset)) {
+            return TokenType.VARIABLE;
+        }
+        if (source.startsWith(FILE_NAME, offset)) {
+            return TokenType.FILE_NAME;
+        }
+        if (source.startsWith(FILE_PATH, offset)) {
+            return TokenType.FILE_PATH;
+        }
+        if (source.startsWith(LINE_NUMBER, offset)) {
+            return TokenType.LINE_NUMBER;
+        }
+        if (source.startsWith(CARRIAGE_RETURN, offset)) {
+            return TokenType.CARRIAGE_RETURN;
+        }
+        return null;
+    }
+
+    private static String placeholderText(TokenType type) {
+        return switch (type) {
+            case VARIABLE -> VARIABLE;
+            case FILE_NAME -> FILE_NAME;
+            case FILE_PATH -> FILE_PATH;
+            case LINE_NUMBER -> LINE_NUMBER;
+            case CARRIAGE_RETURN -> CARRIAGE_RETURN;
+            case TEXT -> "";
+        };
+    }
+
+    private static String toRegex(List<Token> tokens) {
+        StringBuilder regex = new StringBuilder();
+        boolean lineNumberGroup = false;
+        for (Token token : tokens) {
+            switch (token.type()) {
+                case TEXT -> regex.append(Pattern.quote(token.text()));
+                case VARIABLE, FILE_NAME, FILE_PATH -> regex.append(".*");  // Match any value, filename or file path
+                case LINE_NUMBER -> {
+                    // Match any line number, the first one is captured to be updated
+                    if (!lineNumberGroup) {
+                        regex.append("(?<").append(LINE_NUMBER_GROUP).append(">Line: \\d+)");
+                        lineNumberGroup = true;
+                    } else {
+                        regex.append("Line: \\d+");
+                    }
+                }
+                case CARRIAGE_RETURN -> {
+                    // removed from the generated log
+                }
+            }
+        }
+        return regex.toString();
+    }
+
+    private static boolean isWildcard(TokenType type) {
+        return type == TokenType.VARIABLE || type == TokenType.FILE_NAME || type == TokenType.FILE_PATH;
+    }
+
+    /**
+     * Splits the tokens into blocks at the wildcards. A block alternates literal parts and digit runs,
+     * a null part stands for the digits of a line number, so every block starts with a literal.
+     */
+    private static String[][] toBlocks(List<Token> tokens) {
+        List<String[]> blocks = new ArrayList<>();
+        List<String> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (Token token : tokens) {
+            switch (token.type()) {
+                case TEXT -> literal.append(token.text());
+                case LINE_NUMBER -> {
+                    literal.append("Line: ");
+                    parts.add(literal.toString());
+                    parts.add(null);
+                    literal.setLength(0);
+                }
+                case VARIABLE, FILE_NAME, FILE_PATH -> {
+                    if (!literal.isEmpty()) {
+                        parts.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    if (!parts.isEmpty()) {
+                        blocks.add(parts.toArray(new String[0]));
+                        parts.clear();
+                    }
+                }
+                case CARRIAGE_RETURN -> {
+                }
+            }
+        }
+        if (!literal.isEmpty()) {
+            parts.add(literal.toString());
+        }
+        if (!parts.isEmpty()) {
+            blocks.add(parts.toArray(new String[0]));
+        }
+        return blocks.toArray(new String[0][]);
+    }
+
+    /**
+     * Finds a log generated from this template in [from, to) of the text, which must not span a line break.
+     * Runs in linear time: the first literal of every block is searched for, the block is verified in place
+     * and the wildcards between blocks are bridged by taking the earliest next block.
+     *
+     * @return the start of the match, -1 when there is none
+     */
+    public int find(CharSequence text, int from, int to) {
+        if (blocks.length == 0) {
+            return from;
+        }
+        // the rest can't match after an end it already failed from
+        int failedEnd = Integer.MAX_VALUE;
+        int start = from;
+        while ((start = indexOf(text, blocks[0][0], start, to)) >= 0) {
+            int end = matchBlock(blocks[0], 0, text, start, to);
+            if (end >= 0 && end < failedEnd) {
+                if (matchRest(text, end, to)) {
+                    return leadingWildcard ? from : start;
+                }
+                failedEnd = end;
+            }
+            start++;
+        }
+        return -1;
+    }
+
+    /**
+     * Whether a log generated from this template starts at [start] and ends before [to], in linear time.
+     */
+    public boolean matchesAt(CharSequence text, int start, int to) {
+        if (blocks.length == 0) {
+            return true;
+        }
+        if (leadingWildcard) {
+            return find(text, start, to) >= 0;
+        }
+        int end = matchBlock(blocks[0], 0, text, start, to);
+        return end >= 0 && matchRest(text, end, to);
+    }
+
+    private boolean matchRest(CharSequence text, int from, int to) {
+        int offset = from;
+        for (int i = 1; i < blocks.length; i++) {
+            offset = findBlockEnd(blocks[i], text, offset, to);
+            if (offset < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int findBlockEnd(String[] block, CharSequence text, int from, int to) {
+        int start = from;
+        while ((start = indexOf(text, block[0], start, to)) >= 0) {
+            int end = matchBlock(block, 0, text, start, to);
+            if (end >= 0) {
+                return end;
+            }
+            start++;
+        }
+        return -1;
+    }
+
+    /**
+     * Matches the parts of a block from [part] at [at], taking the fewest digits for a line number
+     * that let the rest of the block match. Returns the end of the block or -1.
+     */
+    private static int matchBlock(String[] block, int part, CharSequence text, int at, int to) {
+        if (part == block.length) {
+            return at;
+        }
+        String literal = block[part];
+        if (literal != null) {
+            return regionMatches(text, at, to, literal) ? matchBlock(block, part + 1, text, at + literal.length(), to) : -1;
+        }
+        int digitsEnd = at;
+        while (digitsEnd < to && text.charAt(digitsEnd) >= '0' && text.charAt(digitsEnd) <= '9') {
+            digitsEnd++;
+        }
+        for (int end = at + 1; end <= digitsEnd; end++) {
+            int blockEnd = matchBlock(block, part + 1, text, end, to);
+            if (blockEnd >= 0) {
+                return blockEnd;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence text, int at, int to, String literal) {
+        if (at + literal.length() > to) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (text.charAt(at + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence text, String literal, int from, int to) {
+        char first = literal.charAt(0);
+        for (int i = from; i + literal.length() <= to; i++) {
+            if (text.charAt(i) == first && regionMatches(text, i, to, literal)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Renders a log from the template in a single pass.
+     */
+    public String render(String variable, String fileName, String filePath, int lineNumber) {
+        return renderWithOffsets(variable, fileName, filePath, lineNumber).text();
+    }
+
+    /**
+     * Renders a log from the template in a single pass over the tokens into a reused builder,
+     * recording where every $$ was filled in.
+     */
+    public Rendered renderWithOffsets(String variable, String fileName, String filePath, int lineNumber) {
+        StringBuilder log = BUILDER.get();
+        log.setLength(0);
+        int[] variableOffsets = new int[variableCount];
+        int variables = 0;
+        for (Token token : tokens) {
+            switch (token.type()) {
+                case TEXT -> log.append(token.text());
+                case VARIABLE -> {
+                    variableOffsets[variables++] = log.length();
+                    log.append(variable);
+                }
+                case FILE_NAME -> log.append(fileName);
+                case FILE_PATH -> log.append(filePath);
+                case LINE_NUMBER -> log.append("Line: ").append(lineNumber);
+                case CARRIAGE_RETURN -> {
+                }
+            }
+        }
+        return new Rendered(log.toString(), variableOffsets);
+    }
+
+    /**
+     * Offsets in the source of every placeholder of the given type.
+     */
+    public int[] getPlaceholderOffsets(TokenType type) {
+        return tokens.stream().filter(token -> token.type() == type).mapToInt(Token::offset).toArray();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<Token> getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Matches a log generated from this template, the `Line: N` of the first {LN} is in {@link #LINE_NUMBER_GROUP}.
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * The literal text before the first placeholder, up to the first line break.
+     */
+    public String getHead() {
+        return head;
+    }
+
+    public boolean hasLineNumber() {
+        return hasLineNumber;
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.bgomar.bgconsolelogger.tools;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A named set of log patterns, as stored in the settings. The first nine are bound to CTRL + ALT + 1..9.
+ */
+public final class PatternPreset {
+
+    public String id = "";
+    public String name = "";
+    public List<String> patterns = new ArrayList<>();
+
+    // for the serializer
+    public PatternPreset() {
+    }
+
+    public PatternPreset(@NotNull String id, @NotNull String name, @NotNull List<String> patterns) {
+        this.id = id;
+        this.name = name;
+        this.patterns = new ArrayList<>(patterns);
+    }
+
+    public PatternPreset copy() {
+        return new PatternPreset(id, name, patterns);
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.bgomar.bgconsolelogger.tools;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of the presets of the settings, with their patterns compiled.
+ * Presets are looked up by id in constant time. Switching the active preset creates a new registry
+ * sharing everything with this one, so it costs no copy and no compilation.
+ */
+public final class PatternRegistry {
+
+    // frozen copies of the presets of the settings, in order, not to be modified
+    private final List<PatternPreset> presets;
+    private final Map<String, PatternPreset> presetsById;
+    private final Map<String, List<LogTemplate>> templatesById;
+    // the distinct templates of all the presets, to recognise the logs generated with any of them
+    private final List<LogTemplate> allTemplates;
+    private final PatternPreset active;
+
+    private PatternRegistry(List<PatternPreset> presets, Map<String, PatternPreset> presetsById,
+                            Map<String, List<LogTemplate>> templatesById, List<LogTemplate> allTemplates, PatternPreset active) {
+        this.presets = presets;
+        this.presetsById = presetsById;
+        this.templatesById = templatesById;
+        this.allTemplates = allTemplates;
+        this.active = active;
+    }
+
+    /**
+     * Builds the registry of the presets, none of them may be empty. The patterns already compiled
+     * in the previous registry are reused.
+     */
+    static PatternRegistry build(@NotNull List<PatternPreset> presets, @NotNull String activeId, @Nullable PatternRegistry previous) {
+        Map<String, LogTemplate> compiled = new HashMap<>();
+        if (previous != null) {
+            previous.allTemplates.forEach(template -> compiled.put(template.getSource(), template));
+        }
+
+        List<PatternPreset> frozen = new ArrayList<>(presets.size());
+        Map<String, PatternPreset> presetsById = new LinkedHashMap<>();
+        Map<String, List<LogTemplate>> templatesById = new HashMap<>();
+        Map<String, LogTemplate> distinct = new LinkedHashMap<>();
+        for (PatternPreset preset : presets) {
+            PatternPreset copy = new PatternPreset(preset.id, preset.name, List.of());
+            copy.patterns = List.copyOf(preset.patterns);
+            frozen.add(copy);
+            presetsById.put(copy.id, copy);
+
+            List<LogTemplate> templates = new ArrayList<>(copy.patterns.size());
+            for (String pattern : copy.patterns) {
+                LogTemplate template = compiled.computeIfAbsent(pattern, LogTemplate::compile);
+                templates.add(template);
+                distinct.putIfAbsent(pattern, template);
+            }
+            templatesById.put(copy.id, Collections.unmodifiableList(templates));
+        }
+
+        PatternPreset active = presetsById.getOrDefault(activeId, frozen.get(0));
+        return new PatternRegistry(Collections.unmodifiableList(frozen), presetsById, templatesById,
+                List.copyOf(distinct.values()), active);
+    }
+
+    /**
+     * This registry with another active preset, or this one when the preset does not exist.
+     */
+    PatternRegistry withActive(@NotNull String id) {
+        PatternPreset preset = presetsById.get(id);
+        if (preset == null || preset == active) {
+            return this;
+        }
+        return new PatternRegistry(presets, presetsById, templatesById, allTemplates, preset);
+    }
+
+    public List<PatternPreset> getPresets() {
+        return presets;
+    }
+
+    public @Nullable PatternPreset getPreset(@NotNull String id) {
+        return presetsById.get(id);
+    }
+
+    public @NotNull PatternPreset getActive() {
+        return active;
+    }
+
+    public List<LogTemplate> getActiveTemplates() {
+        return templatesById.get(active.id);
+    }
+
+    /**
+     * The template of the active preset at the index, the last one if out of bounds.
+     */
+    public LogTemplate getTemplate(int index) {
+        List<LogTemplate> templates = getActiveTemplates();
+        return templates.get(index >= 0 && index < templates.size() ? index : templates.size() - 1);
+    }
+
+    public List<LogTemplate> getAllTemplates() {
+        return allTemplates;
+    }
+}
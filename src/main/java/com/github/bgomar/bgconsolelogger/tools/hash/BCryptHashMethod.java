@@ -5,6 +5,11 @@ import at.favre.lib.crypto.bcrypt.BCrypt;
 import java.util.Optional;
 
 public class BCryptHashMethod implements HashMethod {
+    // log2 of the number of rounds, the library accepts 4 to 31
+    public static final int DEFAULT_COST = 6;
+    public static final int MIN_COST = 4;
+    public static final int MAX_COST = 31;
+
     private final BCryptVersion version;
 
     public BCryptHashMethod(BCryptVersion version) {
@@ -13,12 +18,19 @@ public class BCryptHashMethod implements HashMethod {
 
     @Override
     public Optional<String> generateHash(String input) {
+        return generateHash(input, DEFAULT_COST);
+    }
+
+    /**
+     * Each increment of the cost doubles the time taken, production systems use 10 to 12.
+     */
+    public Optional<String> generateHash(String input, int cost) {
         try {
             if (input.isBlank()) {
                 return Optional.of("");
             }
 
-            char[] bcryptChars = BCrypt.with(version.getVersion()).hashToChar(6, input.toCharArray());
+            char[] bcryptChars = BCrypt.with(version.getVersion()).hashToChar(cost, input.toCharArray());
             return Optional.of(new String(bcryptChars));
         } catch (Exception e) {
             return Optional.empty();
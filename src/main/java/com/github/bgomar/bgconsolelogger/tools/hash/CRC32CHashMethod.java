@@ -0,0 +1,21 @@
+package com.github.bgomar.bgconsolelogger.tools.hash;
+
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * CRC32C of the JDK, computed with the CRC32 instructions of the CPU where available.
+ */
+public class CRC32CHashMethod extends ChecksumHashMethod {
+    public static final String NAME = "CRC32C";
+
+    @Override
+    protected Checksum newChecksum() {
+        return new CRC32C();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.bgomar.bgconsolelogger.tools.hash;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.Checksum;
+
+/**
+ * A fast non-cryptographic 32-bit checksum, for cache keys and deduplication rather than passwords.
+ * The hash is the checksum in hex, 8 characters.
+ */
+public abstract class ChecksumHashMethod implements HashMethod {
+
+    protected abstract Checksum newChecksum();
+
+    @Override
+    public Optional<String> generateHash(String input) {
+        if (input.isBlank()) {
+            return Optional.of("");
+        }
+        Checksum checksum = newChecksum();
+        checksum.update(input.getBytes(StandardCharsets.UTF_8));
+        return Optional.of(toHex(checksum));
+    }
+
+    @Override
+    public Optional<String> generateHash(ByteBuffer input) {
+        Checksum checksum = newChecksum();
+        checksum.update(input);
+        return Optional.of(toHex(checksum));
+    }
+
+    @Override
+    public Optional<String> generateHash(InputStream input) throws IOException {
+        Checksum checksum = newChecksum();
+        byte[] buffer = new byte[64 * 1024];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+            checksum.update(buffer, 0, read);
+        }
+        return Optional.of(toHex(checksum));
+    }
+
+    private static String toHex(Checksum checksum) {
+        return String.format("%08x", checksum.getValue() & 0xFFFFFFFFL);
+    }
+}
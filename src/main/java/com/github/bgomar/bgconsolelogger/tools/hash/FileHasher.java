@@ -0,0 +1,51 @@
+package com.github.bgomar.bgconsolelogger.tools.hash;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashes a file of any size with several methods in a single pass: the file is memory-mapped chunk by chunk,
+ * and each chunk is fed to all the digests, side by side, before the next one is mapped.
+ */
+public final class FileHasher {
+
+    // mapped at once, the mappings are released by the collector
+    private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private FileHasher() {
+    }
+
+    /**
+     * The hex hashes of the file by method name, in the order of the methods; the methods that do not
+     * hash bytes are skipped. The progress is told the bytes hashed so far after each chunk, and may throw
+     * to cancel.
+     */
+    public static Map<String, String> hashFile(Path file, List<HashMethod> methods, LongConsumer progress) throws IOException {
+        Map<String, MessageDigest> digests = new LinkedHashMap<>();
+        for (HashMethod method : methods) {
+            method.newDigest().ifPresent(digest -> digests.put(method.name(), digest));
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += CHUNK_SIZE) {
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+                // each digest reads its own view of the chunk
+                digests.values().parallelStream().forEach(digest -> digest.update(chunk.duplicate()));
+                progress.accept(Math.min(size, position + CHUNK_SIZE));
+            }
+        }
+
+        Map<String, String> hashes = new LinkedHashMap<>();
+        digests.forEach((name, digest) -> hashes.put(name, LineHasher.toHex(digest.digest())));
+        return hashes;
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.bgomar.bgconsolelogger.tools.hash;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the throughput of the hash methods on this machine, by hashing the same random buffer
+ * with each one until a time budget is spent.
+ */
+public final class HashBenchmark {
+
+    private static final int BUFFER_SIZE = 16 * 1024 * 1024;
+    private static final long WARMUP_NANOS = 200_000_000L;
+    private static final long MEASURE_NANOS = 500_000_000L;
+
+    private HashBenchmark() {
+    }
+
+    /**
+     * The throughput in MB/s by method name, in the order of the methods; the methods that do not
+     * hash bytes are skipped.
+     */
+    public static Map<String, Double> run(List<HashMethod> methods) {
+        byte[] data = new byte[BUFFER_SIZE];
+        new Random(42).nextBytes(data);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+
+        Map<String, Double> throughput = new LinkedHashMap<>();
+        for (HashMethod method : methods) {
+            if (method.generateHash(buffer.duplicate()).isEmpty()) {
+                continue;
+            }
+            // let the JIT compile the hashing loop before measuring
+            hashFor(method, buffer, WARMUP_NANOS);
+            long started = System.nanoTime();
+            long rounds = hashFor(method, buffer, MEASURE_NANOS);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            throughput.put(method.name(), rounds * (double) BUFFER_SIZE / (1024 * 1024) / seconds);
+        }
+        return throughput;
+    }
+
+    private static long hashFor(HashMethod method, ByteBuffer buffer, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long rounds = 0;
+        do {
+            method.generateHash(buffer.duplicate());
+            rounds++;
+        } while (System.nanoTime() < deadline);
+        return rounds;
+    }
+}
@@ -1,5 +1,9 @@
 package com.github.bgomar.bgconsolelogger.tools.hash;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
 import java.util.Optional;
 
 /**
@@ -13,4 +17,36 @@ public interface HashMethod {
     default boolean match(String input, String hash) {
         return generateHash(input).map(hash::equals).orElse(false);
     }
-}
\ No newline at end of file
+
+    /**
+     * A new digest for the method, empty for the methods that do not hash bytes (BCrypt).
+     */
+    default Optional<MessageDigest> newDigest() {
+        return Optional.empty();
+    }
+
+    /**
+     * The hex hash of the remaining bytes of the buffer, which are consumed.
+     */
+    default Optional<String> generateHash(ByteBuffer input) {
+        return newDigest().map(digest -> {
+            digest.update(input);
+            return LineHasher.toHex(digest.digest());
+        });
+    }
+
+    /**
+     * The hex hash of the bytes of the stream, read to its end but not closed.
+     */
+    default Optional<String> generateHash(InputStream input) throws IOException {
+        Optional<MessageDigest> digest = newDigest();
+        if (digest.isEmpty()) {
+            return Optional.empty();
+        }
+        byte[] buffer = new byte[64 * 1024];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+            digest.get().update(buffer, 0, read);
+        }
+        return Optional.of(LineHasher.toHex(digest.get().digest()));
+    }
+}
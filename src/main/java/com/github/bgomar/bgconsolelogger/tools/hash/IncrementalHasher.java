@@ -0,0 +1,81 @@
+package com.github.bgomar.bgconsolelogger.tools.hash;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashes a text that is edited over time with several methods. The digests keep the state of the last text,
+ * so when the new text only appends to it, the digests are cloned and fed the appended characters alone:
+ * typing at the end costs the length of the edit instead of the length of the text. Any other edit
+ * hashes the whole text again.
+ */
+public final class IncrementalHasher {
+
+    // the digests fed with the whole last text, never finished
+    private final Map<HashMethod, MessageDigest> states = new LinkedHashMap<>();
+    private final List<HashMethod> methods;
+    private String text = "";
+    private boolean cloneable = true;
+
+    public IncrementalHasher(List<HashMethod> methods) {
+        this.methods = methods;
+        reset();
+    }
+
+    /**
+     * The hex hashes of the input by method name, in the order of the methods; the methods that do not
+     * hash bytes are skipped. A blank input has blank hashes, like the generateHash of the methods.
+     */
+    public synchronized Map<String, String> hash(String input) {
+        if (cloneable && input.startsWith(text) && !endsWithHighSurrogate(text)) {
+            update(input.substring(text.length()));
+        } else {
+            reset();
+            update(input);
+        }
+        text = input;
+
+        Map<String, String> hashes = new LinkedHashMap<>();
+        states.forEach((method, state) -> hashes.put(method.name(), input.isBlank() ? "" : LineHasher.toHex(finish(method, state))));
+        return hashes;
+    }
+
+    private void reset() {
+        states.clear();
+        for (HashMethod method : methods) {
+            method.newDigest().ifPresent(digest -> states.put(method, digest));
+        }
+        text = "";
+    }
+
+    private void update(String appended) {
+        if (appended.isEmpty()) {
+            return;
+        }
+        byte[] bytes = appended.getBytes(StandardCharsets.UTF_8);
+        states.values().forEach(state -> state.update(bytes));
+    }
+
+    // the digest of the state, leaving the state as it is for the next edit
+    private byte[] finish(HashMethod method, MessageDigest state) {
+        if (cloneable) {
+            try {
+                return ((MessageDigest) state.clone()).digest();
+            } catch (CloneNotSupportedException e) {
+                // a provider without clone, the whole text is hashed on every edit from now on
+                cloneable = false;
+            }
+        }
+        MessageDigest digest = method.newDigest().orElseThrow();
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        return digest.digest();
+    }
+
+    // a lone high surrogate is encoded as '?', it must be hashed again with the low surrogate that follows
+    private static boolean endsWithHighSurrogate(String text) {
+        return !text.isEmpty() && Character.isHighSurrogate(text.charAt(text.length() - 1));
+    }
+}
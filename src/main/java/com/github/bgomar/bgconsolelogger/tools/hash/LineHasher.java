@@ -0,0 +1,128 @@
+package com.github.bgomar.bgconsolelogger.tools.hash;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Hashes a list of lines, one digest per line, in parallel on the common ForkJoin pool.
+ * Each thread keeps one digest per algorithm, and the hex digests are written straight into one
+ * shared char array: every line has a slot of the same width, so no string is made per line.
+ */
+public final class LineHasher {
+
+    // the methods of the hash tool and their JCA names
+    private static final Map<String, String> ALGORITHMS = new LinkedHashMap<>();
+
+    static {
+        ALGORITHMS.put(MD5HashMethod.NAME, "MD5");
+        ALGORITHMS.put(SHA1HashMethod.NAME, "SHA-1");
+        ALGORITHMS.put(SHA256HashMethod.NAME, "SHA-256");
+        ALGORITHMS.put(SHA384HashMethod.NAME, "SHA-384");
+        ALGORITHMS.put(SHA512HashMethod.NAME, "SHA-512");
+    }
+
+    public static final List<String> METHODS = List.copyOf(ALGORITHMS.keySet());
+
+    private static final Map<String, ThreadLocal<MessageDigest>> DIGESTS = new LinkedHashMap<>();
+
+    static {
+        ALGORITHMS.forEach((method, algorithm) -> DIGESTS.put(method, ThreadLocal.withInitial(() -> newDigest(algorithm))));
+    }
+
+    // the two hex digits of each byte value, side by side
+    private static final char[] HEX_PAIRS = new char[512];
+
+    static {
+        char[] digits = "0123456789abcdef".toCharArray();
+        for (int value = 0; value < 256; value++) {
+            HEX_PAIRS[value << 1] = digits[value >>> 4];
+            HEX_PAIRS[(value << 1) + 1] = digits[value & 0xF];
+        }
+    }
+
+    // lines hashed by a single task
+    private static final int LEAF_SIZE = 512;
+
+    private LineHasher() {
+    }
+
+    /**
+     * The hex digests of the lines with the method, each one followed by a line feed, in the order of the lines.
+     */
+    public static char[] hashLines(List<String> lines, String method) {
+        ThreadLocal<MessageDigest> digests = DIGESTS.get(method);
+        if (digests == null) {
+            throw new IllegalArgumentException("Not a digest method: " + method);
+        }
+        int slot = digests.get().getDigestLength() * 2 + 1;
+        char[] out = new char[lines.size() * slot];
+        ForkJoinPool.commonPool().invoke(new HashTask(lines, 0, lines.size(), digests, slot, out));
+        return out;
+    }
+
+    /**
+     * The hex form of the bytes, in lower case like the digests of the hash tool.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        writeHex(bytes, hex, 0);
+        return new String(hex);
+    }
+
+    private static int writeHex(byte[] bytes, char[] out, int offset) {
+        for (byte b : bytes) {
+            int index = (b & 0xFF) << 1;
+            out[offset++] = HEX_PAIRS[index];
+            out[offset++] = HEX_PAIRS[index + 1];
+        }
+        return offset;
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class HashTask extends RecursiveAction {
+        private final List<String> lines;
+        private final int from;
+        private final int to;
+        private final ThreadLocal<MessageDigest> digests;
+        private final int slot;
+        private final char[] out;
+
+        HashTask(List<String> lines, int from, int to, ThreadLocal<MessageDigest> digests, int slot, char[] out) {
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+            this.digests = digests;
+            this.slot = slot;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new HashTask(lines, from, middle, digests, slot, out),
+                    new HashTask(lines, middle, to, digests, slot, out));
+                return;
+            }
+            MessageDigest digest = digests.get();
+            for (int i = from; i < to; i++) {
+                // digest() resets the digest for the next line
+                int end = writeHex(digest.digest(lines.get(i).getBytes(StandardCharsets.UTF_8)), out, i * slot);
+                out[end] = '\n';
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.bgomar.bgconsolelogger.tools.hash;
+
+import org.apache.commons.codec.digest.MurmurHash3;
+
+import java.util.zip.Checksum;
+
+/**
+ * MurmurHash3 x86 32-bit of commons-codec, with the seed 0 like {@link MurmurHash3#hash32x86(byte[])}.
+ */
+public class Murmur3HashMethod extends ChecksumHashMethod {
+    public static final String NAME = "MURMUR3";
+
+    @Override
+    protected Checksum newChecksum() {
+        return new Murmur3Checksum();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    // the incremental hash of commons-codec seen as a checksum
+    private static final class Murmur3Checksum implements Checksum {
+        private final MurmurHash3.IncrementalHash32x86 hash = new MurmurHash3.IncrementalHash32x86();
+
+        Murmur3Checksum() {
+            reset();
+        }
+
+        @Override
+        public void update(int b) {
+            update(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            hash.add(b, off, len);
+        }
+
+        @Override
+        public long getValue() {
+            return hash.end();
+        }
+
+        @Override
+        public void reset() {
+            hash.start(0);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.github.bgomar.bgconsolelogger.tools.hash;
 
 import org.apache.commons.codec.digest.DigestUtils;
 
+import java.security.MessageDigest;
 import java.util.Optional;
 
 public class SHA1HashMethod implements HashMethod {
@@ -23,4 +24,9 @@ public class SHA1HashMethod implements HashMethod {
     public String name() {
         return NAME;
     }
+
+    @Override
+    public Optional<MessageDigest> newDigest() {
+        return Optional.of(DigestUtils.getSha1Digest());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.github.bgomar.bgconsolelogger.tools.hash;
+
+import org.apache.commons.codec.digest.XXHash32;
+
+import java.util.zip.Checksum;
+
+/**
+ * xxHash32 of commons-codec, with the seed 0.
+ */
+public class XXHash32HashMethod extends ChecksumHashMethod {
+    public static final String NAME = "XXHASH32";
+
+    @Override
+    protected Checksum newChecksum() {
+        return new XXHash32();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
@@ -1,13 +1,20 @@
 package com.github.bgomar.bgconsolelogger.toolwindow;
 
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.IconLoader;
 import com.intellij.ui.ComboboxSpeedSearch;
+import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBRadioButton;
 import com.intellij.ui.components.JBTextField;
+import com.intellij.ui.table.JBTable;
 import com.github.bgomar.bgconsolelogger.toolwindow.setup.*;
 
 import javax.swing.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.Set;
 
 public class ConsoleLoggerToolWindow {
 
@@ -37,9 +44,22 @@ public class ConsoleLoggerToolWindow {
     private JBTextField hashSHA256TextField;
     private JBTextField hashSHA384TextField;
     private JBTextField hashSHA512TextField;
+    private JBTextField hashCRC32CTextField;
+    private JBTextField hashXXHash32TextField;
+    private JBTextField hashMurmur3TextField;
     private JBTextField hashBCrypt2ATextField;
     private JBTextField hashBCrypt2BTextField;
     private JBTextField hashBCrypt2YTextField;
+    private JSpinner hashBCryptCostSpinner;
+    private JTextArea hashVerifyInputTextArea;
+    private JButton hashVerifyButton;
+    private JBTable hashVerifyTable;
+    private JComboBox<String> hashBulkMethodComboBox;
+    private JButton hashBulkButton;
+    private JPanel hashBulkOutputPanel;
+    private JBLabel hashFileLabel;
+    private JButton hashFileButton;
+    private JBTable hashFileTable;
 
     private JPanel dataFakerPanel;
     private JComboBox<String> dataFakerGeneratorComboBox;
@@ -62,6 +82,7 @@ public class ConsoleLoggerToolWindow {
     private JButton propertiesConsoleLoggerLoad1Button;
     private JButton propertiesConsoleLoggerCancelButton;
     private JButton propertiesConsoleLoggerRecheckButton;
+    private JButton propertiesConsoleLoggerRecheckProjectButton;
 
     private JButton propertiesConsoleLoggerDefaultButton1;
     private JButton propertiesConsoleLoggerDefaultButton2;
@@ -73,21 +94,23 @@ public class ConsoleLoggerToolWindow {
     private JButton propertiesConsoleLoggerDefaultButton8;
     private JButton propertiesConsoleLoggerDefaultButton9;
 
+    private static final Logger LOG = Logger.getInstance(ConsoleLoggerToolWindow.class);
+
     private final LinkedHashMap<String, PanelAndIcon> toolPanelsByTitle = new LinkedHashMap<>();
+    // titles of the tools wired up so far, each one is set up on its first selection
+    private final Set<String> setUpTools = new HashSet<>();
 
-    private record PanelAndIcon(JPanel panel, String icon) {
+    private record PanelAndIcon(JPanel panel, String icon, Runnable setup) {
     }
 
     public ConsoleLoggerToolWindow() {
+        boolean debug = LOG.isDebugEnabled();
+        long heapBefore = debug ? retainedHeap() : 0;
+        long started = debug ? System.nanoTime() : 0;
+
         String iconsPath = "icons/";
-        toolPanelsByTitle.put("Properties of ConsoleLogger ", new PanelAndIcon(propertiesConsoleLoggerPanel, iconsPath + "cryingcatt.svg"));
-        toolPanelsByTitle.put("Pixels to REM", new PanelAndIcon(px2RemPanel, iconsPath + "cat1.svg"));
-        toolPanelsByTitle.put("Svg 2 Css", new PanelAndIcon(svg2cssPanel, iconsPath + "coolcat.svg"));
-        toolPanelsByTitle.put("Base64 encoder/decoder", new PanelAndIcon(base64Panel, iconsPath + "devcat.svg"));
-        toolPanelsByTitle.put("Fake Data generator", new PanelAndIcon(dataFakerPanel, iconsPath + "winecat.svg"));
-        toolPanelsByTitle.put("Hash generator", new PanelAndIcon(hashPanel, iconsPath + "f03.svg"));
-
-        new PropertiesConsoleLoggerToolSetup(
+        toolPanelsByTitle.put("Properties of ConsoleLogger ", new PanelAndIcon(propertiesConsoleLoggerPanel, iconsPath + "cryingcatt.svg", () ->
+            new PropertiesConsoleLoggerToolSetup(
                 propertiesConsoleLoggerTextField1,
                 propertiesConsoleLoggerTextField2,
                 propertiesConsoleLoggerTextField3,
@@ -102,6 +125,7 @@ public class ConsoleLoggerToolWindow {
                 propertiesConsoleLoggerLoad1Button,
                 propertiesConsoleLoggerCancelButton,
                 propertiesConsoleLoggerRecheckButton,
+                propertiesConsoleLoggerRecheckProjectButton,
                 propertiesConsoleLoggerDefaultButton1,
                 propertiesConsoleLoggerDefaultButton2,
                 propertiesConsoleLoggerDefaultButton3,
@@ -110,36 +134,52 @@ public class ConsoleLoggerToolWindow {
                 propertiesConsoleLoggerDefaultButton6,
                 propertiesConsoleLoggerDefaultButton7,
                 propertiesConsoleLoggerDefaultButton8,
-                propertiesConsoleLoggerDefaultButton9).setup();
-        new Base64ToolSetup(
-            base64RadioButtonUTF8,
-            base64RadioButtonASCII,
-            base64RawTextArea,
-            base64Base64TextArea).setup();
-        new Svg2cssToolSetup(
-            svg2cssEncodedTextArea,
-            svg2cssDecodedTextArea,
-            svg2CssTextArea).setup();
-        new Px2RemToolSetup(
-            px2RemTextField,
-            rem2PxTextField).setup();
-        new DataFakerToolSetup(
-            dataFakerGeneratorComboBox,
-            dataFakerGenerateButton,
-            dataFakerLocaleComboBox,
-            dataFakerTextArea).setup();
-        var hashToolSetup = new HashToolSetup(
-            hashInputTextArea,
-            hashMD5TextField,
-            hashSHA1TextField,
-            hashSHA256TextField,
-            hashSHA384TextField,
-            hashSHA512TextField,
-            hashBCrypt2ATextField,
-            hashBCrypt2BTextField,
-            hashBCrypt2YTextField);
-        hashToolSetup.setup();
-
+                propertiesConsoleLoggerDefaultButton9).setup()));
+        toolPanelsByTitle.put("Pixels to REM", new PanelAndIcon(px2RemPanel, iconsPath + "cat1.svg", () ->
+            new Px2RemToolSetup(
+                px2RemTextField,
+                rem2PxTextField).setup()));
+        toolPanelsByTitle.put("Svg 2 Css", new PanelAndIcon(svg2cssPanel, iconsPath + "coolcat.svg", () ->
+            new Svg2cssToolSetup(
+                svg2cssEncodedTextArea,
+                svg2cssDecodedTextArea,
+                svg2CssTextArea).setup()));
+        toolPanelsByTitle.put("Base64 encoder/decoder", new PanelAndIcon(base64Panel, iconsPath + "devcat.svg", () ->
+            new Base64ToolSetup(
+                base64RadioButtonUTF8,
+                base64RadioButtonASCII,
+                base64RawTextArea,
+                base64Base64TextArea).setup()));
+        toolPanelsByTitle.put("Fake Data generator", new PanelAndIcon(dataFakerPanel, iconsPath + "winecat.svg", () ->
+            new DataFakerToolSetup(
+                dataFakerGeneratorComboBox,
+                dataFakerGenerateButton,
+                dataFakerLocaleComboBox,
+                dataFakerTextArea).setup()));
+        toolPanelsByTitle.put("Hash generator", new PanelAndIcon(hashPanel, iconsPath + "f03.svg", () ->
+            new HashToolSetup(
+                hashInputTextArea,
+                hashMD5TextField,
+                hashSHA1TextField,
+                hashSHA256TextField,
+                hashSHA384TextField,
+                hashSHA512TextField,
+                hashCRC32CTextField,
+                hashXXHash32TextField,
+                hashMurmur3TextField,
+                hashBCrypt2ATextField,
+                hashBCrypt2BTextField,
+                hashBCrypt2YTextField,
+                hashBCryptCostSpinner,
+                hashVerifyInputTextArea,
+                hashVerifyButton,
+                hashVerifyTable,
+                hashBulkMethodComboBox,
+                hashBulkButton,
+                hashBulkOutputPanel,
+                hashFileLabel,
+                hashFileButton,
+                hashFileTable).setup()));
 
         toolPanelsByTitle.forEach((title, panelAndIcon) -> toolComboBox.addItem(new ComboBoxWithImageItem(title, panelAndIcon.icon)));
         toolComboBox.setRenderer(new ComboBoxWithImageRenderer());
@@ -185,11 +225,45 @@ public class ConsoleLoggerToolWindow {
             }
         });
         toolComboBox.setSelectedIndex(0);
+
+        if (debug) {
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            LOG.debug("Tool window opened in " + elapsedMs + " ms, retained heap grew by "
+                + (retainedHeap() - heapBefore) / 1024 + " KB");
+        }
     }
 
     private void displayToolPanel(String toolPanelTitle) {
         toolPanelsByTitle.forEach((s, jPanel) -> jPanel.panel().setVisible(false));
-        toolPanelsByTitle.get(toolPanelTitle).panel().setVisible(true);
+        PanelAndIcon panelAndIcon = toolPanelsByTitle.get(toolPanelTitle);
+        if (setUpTools.add(toolPanelTitle)) {
+            boolean debug = LOG.isDebugEnabled();
+            long heapBefore = debug ? retainedHeap() : 0;
+            long started = debug ? System.nanoTime() : 0;
+            panelAndIcon.setup().run();
+            if (debug) {
+                long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+                LOG.debug(toolPanelTitle.trim() + " set up in " + elapsedMs + " ms, retained heap grew by "
+                    + (retainedHeap() - heapBefore) / 1024 + " KB");
+            }
+        }
+        panelAndIcon.panel().setVisible(true);
+    }
+
+    // the heap still in use once the garbage is collected, the collection is repeated until it stops
+    // freeing memory, a single collection may leave what is only released once finalizers and cleaners ran
+    private static long retainedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            memory.gc();
+            long settled = memory.getHeapMemoryUsage().getUsed();
+            if (settled >= used - 64 * 1024) {
+                return Math.min(used, settled);
+            }
+            used = settled;
+        }
+        return used;
     }
 
     public JPanel getContent() {
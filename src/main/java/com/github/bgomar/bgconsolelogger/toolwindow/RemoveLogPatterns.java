@@ -1,21 +1,26 @@
 package com.github.bgomar.bgconsolelogger.toolwindow;
 
-import com.intellij.find.FindModel;
-import com.intellij.find.FindUtil;
+import com.github.bgomar.bgconsolelogger.tools.LogTemplate;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class RemoveLogPatterns extends AnAction {
 
     /**
      * Action method called when the action is performed.
-     * This method triggers the regex-based log removal in the editor.
+     * This method triggers the log removal in the editor.
      */
     @Override
     public void actionPerformed(AnActionEvent e) {
@@ -33,91 +38,97 @@ public class RemoveLogPatterns extends AnAction {
             return;
         }
 
-        // Generate the regex pattern for log removal
+        // Compile the template once, its matcher runs in linear time on every line
         String logPattern = "console.log(\"%c 18 --> {LN}||{FN}\\n $$: \",\"color:#acf;\", $$);";
-        String regexPattern = generateRemovePattern(logPattern);
-
-        System.out.println("Generated Regex: " + regexPattern);
+        LogTemplate template = LogTemplate.compile(logPattern);
 
         // Test the pattern on the editor text
-        String editorText = editor.getDocument().getText();  // Get the text from the active editor
-        if (Pattern.matches(regexPattern, editorText)) {
-            System.out.println("Log matched in the editor!");
-            removeLogs(project, editor, regexPattern);  // Call to remove logs if matched
+        Document document = editor.getDocument();
+        List<TextRange> logLines = findLogLines(template, document.getImmutableCharSequence());
+        if (!logLines.isEmpty()) {
+            System.out.println("Logs matched in the editor: " + logLines.size());
+            removeLogs(project, document, logLines);  // Call to remove logs if matched
         } else {
             System.out.println("Log not matched in the editor.");
         }
     }
 
-    public static String generateRemovePattern(String pattern) {
-        // Escape special characters in the pattern and replace placeholders
-        return ".*" + escapeSpecialCharacters(pattern)
-                .replace("{LN}", "\\\\d+")      // Replace {LN} with regex for digits (line numbers)
-                .replace("{FN}", ".*")          // Replace {FN} with regex for any filename
-                .replace("\\n", "\\\\n")        // Properly escape newline characters
-                .replace("$$", ".*")            // Handle dynamic content represented by $$
-                + ".*";                         // Ensure the regex matches the entire line
-    }
-
     /**
-     * Escapes special regex characters in the pattern string.
+     * Returns the lines holding a log of the template, newline included, in ascending order.
+     * The text is streamed line by line and every line is matched in linear time, without a regex.
      */
-    private static String escapeSpecialCharacters(String str) {
-        return str.replace("\\", "\\\\")
-                .replace("(", "\\(")
-                .replace(")", "\\)")
-                .replace("[", "\\[")
-                .replace("]", "\\]")
-                .replace("^", "\\^")
-                .replace("+", "\\+")
-                .replace("?", "\\?")
-                .replace("|", "\\|")
-                .replace(".", "\\.")
-                .replace("*", "\\*")
-                .replace("{", "\\{")
-                .replace("}", "\\}")
-                .replace("$", "\\$");
+    public static List<TextRange> findLogLines(LogTemplate template, CharSequence text) {
+        List<TextRange> lines = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = lineStart;
+            while (lineEnd < text.length() && text.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (template.find(text, lineStart, lineEnd) >= 0) {
+                lines.add(new TextRange(lineStart, Math.min(lineEnd + 1, text.length())));
+            }
+            lineStart = lineEnd + 1;
+        }
+        return lines;
     }
 
-
-
     /**
-     * Remove logs based on the regex pattern within the active editor.
+     * Remove the given log lines from the document in one command.
      */
-    private void removeLogs(Project project, Editor editor, String regexPattern) {
-        // Create the FindModel for the regex pattern
-        FindModel findModel = new FindModel();
-        findModel.setStringToFind(regexPattern);     // Set the regex pattern for finding
-        findModel.setGlobal(true);                   // Search globally in the editor
-        findModel.setRegularExpressions(true);       // Use regex for search
-        findModel.setStringToReplace("");            // We are removing logs, so replace with an empty string
-        findModel.setPromptOnReplace(false);         // Do not prompt for each replacement
-
-        // Use FindUtil to find and replace logs based on the pattern
-        FindUtil.replace(project, editor, 0, findModel);
-        System.out.println("Logs removed based on pattern: " + regexPattern);
+    private void removeLogs(Project project, Document document, List<TextRange> logLines) {
+        WriteCommandAction.runWriteCommandAction(project, () -> {
+            // delete backwards so the offsets of the remaining lines stay valid
+            for (int i = logLines.size() - 1; i >= 0; i--) {
+                document.deleteString(logLines.get(i).getStartOffset(), logLines.get(i).getEndOffset());
+            }
+        });
+        System.out.println("Logs removed: " + logLines.size());
     }
 
     /**
      * Main method for testing outside the context of IntelliJ plugin.
+     * Compares the linear matcher with the former whole-document `.*` regex on a 100k lines file.
      */
     public static void main(String[] args) {
         // Example usage
         String logPattern = "console.log(\"%c 18 --> {LN}||{FN}\\n $$: \",\"color:#acf;\", $$);";
+        LogTemplate template = LogTemplate.compile(logPattern);
 
-        String regexPattern = generateRemovePattern(logPattern);
-
-        System.out.println("Generated Regex: " + regexPattern);
-
-        // Test the generated regex
-        String testLog = "console.log(\"%c 18 --> 42||myfile.js\\n some text: \",\"color:#acf;\", someVariable);";
+        // Test the matcher
+        String testLog = "console.log(\"%c 18 --> Line: 42||myfile.js\\n some text: \",\"color:#acf;\", someVariable);";
 
-        boolean matches = Pattern.matches(regexPattern, testLog);
-
-        if (matches) {
+        if (template.find(testLog, 0, testLog.length()) >= 0) {
             System.out.println("Log matched!");
         } else {
             System.out.println("Log not matched.");
         }
+
+        // Benchmark: one log every 10 lines
+        StringBuilder file = new StringBuilder();
+        for (int line = 1; line <= 100_000; line++) {
+            if (line % 10 == 0) {
+                file.append(template.render("value" + line, "myfile.js", "src/myfile.js", line));
+            } else {
+                file.append("    const value").append(line).append(" = compute(value").append(line - 1).append(", \"some text\");");
+            }
+            file.append('\n');
+        }
+
+        long start = System.nanoTime();
+        int linear = findLogLines(template, file).size();
+        long linearMs = (System.nanoTime() - start) / 1_000_000;
+
+        Pattern legacy = Pattern.compile(".*" + template.getPattern().pattern() + ".*");
+        start = System.nanoTime();
+        int regex = 0;
+        Matcher matcher = legacy.matcher(file);
+        while (matcher.find()) {
+            regex++;
+        }
+        long regexMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Linear matcher: " + linear + " logs in " + linearMs + " ms");
+        System.out.println("Whole-document regex: " + regex + " logs in " + regexMs + " ms");
     }
 }
@@ -1,12 +1,38 @@
 package com.github.bgomar.bgconsolelogger.toolwindow.setup;
 
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 import javax.swing.JSpinner;
 import javax.swing.JTextArea;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 public abstract class AbstractToolSetup {
 
+    private static final Logger LOG = Logger.getInstance(AbstractToolSetup.class);
+
+    // pause in the typing after which the live tools recompute
+    private static final int LIVE_UPDATE_DELAY_MS = 150;
+
+    /**
+     * Recomputes the outputs of a tool as the user types, without blocking the EDT.
+     */
+    protected final LiveUpdater liveUpdater = new LiveUpdater();
+
     /**
      * Set the same number of rows for every JTextArea in order to avoid unwanted resizing of JTextAreas on content update.
      * <b>Please invoke this method after each JTextArea content update.</b>
@@ -29,4 +55,105 @@ public abstract class AbstractToolSetup {
         }
         return (Long) jSpinner.getValue();
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs the computations of a tool on pooled threads once the typing pauses.
+     * A new submission cancels the pending ones, whichever field it comes from, and only the results
+     * of the latest submission are published, on the EDT.
+     */
+    protected static final class LiveUpdater {
+
+        private final AtomicLong generation = new AtomicLong();
+        // only touched on the EDT
+        private final List<Future<?>> pending = new ArrayList<>();
+        private final int delayMs;
+
+        public LiveUpdater() {
+            this(LIVE_UPDATE_DELAY_MS);
+        }
+
+        public LiveUpdater(int delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        /**
+         * Must be called on the EDT. The input is read from the components by the caller, the computation
+         * must not touch them, the result is handed to publish on the EDT.
+         */
+        public <I, R> void submit(I input, Function<I, R> compute, Consumer<R> publish) {
+            submitAll(input, List.of(value -> {
+                R result = compute.apply(value);
+                return () -> publish.accept(result);
+            }));
+        }
+
+        /**
+         * Like {@link #submit}, for computations running in parallel. Each one returns what to run on the EDT
+         * with its result, which is run as soon as it is done.
+         */
+        public <I> void submitAll(I input, List<Function<I, Runnable>> computations) {
+            submitAll(input, computations, null);
+        }
+
+        /**
+         * Like {@link #submitAll(Object, List)}, each computation running on the executor at its index,
+         * for computations too costly to have several of them running for the same output.
+         */
+        public <I> void submitAll(I input, List<Function<I, Runnable>> computations, @Nullable List<CoalescingExecutor> executors) {
+            long submitted = generation.incrementAndGet();
+            pending.forEach(future -> future.cancel(true));
+            pending.clear();
+            for (int i = 0; i < computations.size(); i++) {
+                Function<I, Runnable> compute = computations.get(i);
+                Runnable task = () -> {
+                    if (generation.get() != submitted) {
+                        return;
+                    }
+                    Runnable publish;
+                    try {
+                        publish = compute.apply(input);
+                    } catch (RuntimeException e) {
+                        LOG.warn("Live update failed", e);
+                        return;
+                    }
+                    ApplicationManager.getApplication().invokeLater(() -> {
+                        if (generation.get() == submitted) {
+                            publish.run();
+                        }
+                    }, ModalityState.any());
+                };
+                Executor executor = executors != null ? executors.get(i) : null;
+                // the scheduled tasks run on the pooled threads of the application, side by side
+                pending.add(AppExecutorUtil.getAppScheduledExecutorService().schedule(
+                    executor != null ? () -> executor.execute(task) : task, delayMs, TimeUnit.MILLISECONDS));
+            }
+        }
+    }
+
+    /**
+     * Runs its tasks one at a time on a pooled thread. A task submitted while another one waits replaces it,
+     * so at most one runs and one waits, however fast the tasks are submitted.
+     */
+    protected static final class CoalescingExecutor implements Executor {
+
+        private final Executor executor;
+        private final AtomicReference<Runnable> waiting = new AtomicReference<>();
+
+        public CoalescingExecutor(String name) {
+            executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(name, 1);
+        }
+
+        @Override
+        public void execute(@NotNull Runnable task) {
+            // a drain is queued only when no task was waiting, the queued drain runs the replacing task
+            if (waiting.getAndSet(task) == null) {
+                executor.execute(() -> {
+                    Runnable next = waiting.getAndSet(null);
+                    if (next != null) {
+                        next.run();
+                    }
+                });
+            }
+        }
+    }
+}
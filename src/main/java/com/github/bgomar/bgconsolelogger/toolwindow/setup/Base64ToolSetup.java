@@ -5,6 +5,7 @@ import com.github.bgomar.bgconsolelogger.tools.Base64Tools;
 
 import javax.swing.JTextArea;
 import java.awt.event.KeyEvent;
+import java.nio.charset.Charset;
 import java.awt.event.KeyListener;
 
 public class Base64ToolSetup extends AbstractToolSetup {
@@ -39,12 +40,12 @@ public class Base64ToolSetup extends AbstractToolSetup {
 
             @Override
             public void keyReleased(KeyEvent e) {
-                base64Base64TextArea.setText(Base64Tools.toBase64(
-                    base64RawTextArea.getText(),
-                    base64RadioButtonUTF8.isSelected() ? Base64Tools.UTF_8 : Base64Tools.US_ASCII)
-                );
-                base64Base64TextArea.setCaretPosition(0);
-                updateWithBestNumberOfRows(base64RawTextArea, base64Base64TextArea);
+                Charset charset = base64RadioButtonUTF8.isSelected() ? Base64Tools.UTF_8 : Base64Tools.US_ASCII;
+                liveUpdater.submit(base64RawTextArea.getText(), text -> Base64Tools.toBase64(text, charset), base64 -> {
+                    base64Base64TextArea.setText(base64);
+                    base64Base64TextArea.setCaretPosition(0);
+                    updateWithBestNumberOfRows(base64RawTextArea, base64Base64TextArea);
+                });
             }
         });
         base64Base64TextArea.addKeyListener(new KeyListener() {
@@ -58,12 +59,12 @@ public class Base64ToolSetup extends AbstractToolSetup {
 
             @Override
             public void keyReleased(KeyEvent e) {
-                base64RawTextArea.setText(Base64Tools.toText(
-                    base64Base64TextArea.getText(),
-                    base64RadioButtonUTF8.isSelected() ? Base64Tools.UTF_8 : Base64Tools.US_ASCII)
-                );
-                base64RawTextArea.setCaretPosition(0);
-                updateWithBestNumberOfRows(base64RawTextArea, base64Base64TextArea);
+                Charset charset = base64RadioButtonUTF8.isSelected() ? Base64Tools.UTF_8 : Base64Tools.US_ASCII;
+                liveUpdater.submit(base64Base64TextArea.getText(), base64 -> Base64Tools.toText(base64, charset), text -> {
+                    base64RawTextArea.setText(text);
+                    base64RawTextArea.setCaretPosition(0);
+                    updateWithBestNumberOfRows(base64RawTextArea, base64Base64TextArea);
+                });
             }
         });
     }
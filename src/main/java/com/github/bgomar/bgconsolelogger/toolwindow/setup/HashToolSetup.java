@@ -1,24 +1,98 @@
 package com.github.bgomar.bgconsolelogger.toolwindow.setup;
 
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.fileTypes.FileTypes;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.EditorTextField;
+import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBTextField;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.text.CharArrayCharSequence;
 import com.github.bgomar.bgconsolelogger.tools.HashTools;
+import com.github.bgomar.bgconsolelogger.tools.hash.BCryptHashMethod;
 import com.github.bgomar.bgconsolelogger.tools.hash.BCryptVersion;
+import com.github.bgomar.bgconsolelogger.tools.hash.IncrementalHasher;
+import com.github.bgomar.bgconsolelogger.tools.hash.LineHasher;
+import com.github.bgomar.bgconsolelogger.tools.hash.MD5HashMethod;
+import com.github.bgomar.bgconsolelogger.tools.hash.SHA1HashMethod;
+import com.github.bgomar.bgconsolelogger.tools.hash.SHA256HashMethod;
+import com.github.bgomar.bgconsolelogger.tools.hash.SHA384HashMethod;
+import com.github.bgomar.bgconsolelogger.tools.hash.SHA512HashMethod;
+import org.jetbrains.annotations.NotNull;
 
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
 import javax.swing.JTextArea;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.table.DefaultTableModel;
+import java.awt.BorderLayout;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 public class HashToolSetup extends AbstractToolSetup {
 
+    // above that a single hash takes seconds
+    private static final int MAX_UI_COST = 16;
+    private static final String[] VERIFY_COLUMNS = {"Password", "Hash", "Method", "Result"};
+    private static final String[] FILE_COLUMNS = {"Method", "Hash"};
+    // lines hashed before their digests are appended to the output
+    private static final int BULK_CHUNK_SIZE = 4096;
+    private static final int BCRYPT_DELAY_MS = 500;
+
     private final JTextArea hashInputTextArea;
     private final JBTextField hashMD5TextField;
     private final JBTextField hashSHA1TextField;
     private final JBTextField hashSHA256TextField;
     private final JBTextField hashSHA384TextField;
     private final JBTextField hashSHA512TextField;
+    private final JBTextField hashCRC32CTextField;
+    private final JBTextField hashXXHash32TextField;
+    private final JBTextField hashMurmur3TextField;
     private final JBTextField hashBCrypt2ATextField;
     private final JBTextField hashBCrypt2BTextField;
     private final JBTextField hashBCrypt2YTextField;
+    private final JSpinner hashBCryptCostSpinner;
+    private final JTextArea hashVerifyInputTextArea;
+    private final JButton hashVerifyButton;
+    private final JBTable hashVerifyTable;
+    private final JComboBox<String> hashBulkMethodComboBox;
+    private final JButton hashBulkButton;
+    private final JPanel hashBulkOutputPanel;
+    private final JBLabel hashFileLabel;
+    private final JButton hashFileButton;
+    private final JBTable hashFileTable;
+    // keeps the digest state of the hash input between updates
+    private final IncrementalHasher typingHasher = HashTools.newIncrementalHasher();
+    // BCrypt waits for a longer pause in the typing, on one executor per variant
+    private final LiveUpdater bcryptUpdater = new LiveUpdater(BCRYPT_DELAY_MS);
+    private final List<CoalescingExecutor> bcryptExecutors = List.of(
+        new CoalescingExecutor("ConsoleLogger BCrypt 2a"),
+        new CoalescingExecutor("ConsoleLogger BCrypt 2b"),
+        new CoalescingExecutor("ConsoleLogger BCrypt 2y"));
+    // the verifications are not dropped by the typing in the hash input
+    private final LiveUpdater verifyUpdater = new LiveUpdater();
+    private final Document bulkOutput = EditorFactory.getInstance().createDocument("");
+    // bumped by each bulk run, a run stops streaming once it is not the latest
+    private final AtomicLong bulkGeneration = new AtomicLong();
 
     public HashToolSetup(JTextArea hashInputTextArea,
                          JBTextField hashMD5TextField,
@@ -26,18 +100,44 @@ public class HashToolSetup extends AbstractToolSetup {
                          JBTextField hashSHA256TextField,
                          JBTextField hashSHA384TextField,
                          JBTextField hashSHA512TextField,
+                         JBTextField hashCRC32CTextField,
+                         JBTextField hashXXHash32TextField,
+                         JBTextField hashMurmur3TextField,
                          JBTextField hashBCrypt2ATextField,
                          JBTextField hashBCrypt2BTextField,
-                         JBTextField hashBCrypt2YTextField) {
+                         JBTextField hashBCrypt2YTextField,
+                         JSpinner hashBCryptCostSpinner,
+                         JTextArea hashVerifyInputTextArea,
+                         JButton hashVerifyButton,
+                         JBTable hashVerifyTable,
+                         JComboBox<String> hashBulkMethodComboBox,
+                         JButton hashBulkButton,
+                         JPanel hashBulkOutputPanel,
+                         JBLabel hashFileLabel,
+                         JButton hashFileButton,
+                         JBTable hashFileTable) {
         this.hashInputTextArea = hashInputTextArea;
         this.hashMD5TextField = hashMD5TextField;
         this.hashSHA1TextField = hashSHA1TextField;
         this.hashSHA256TextField = hashSHA256TextField;
         this.hashSHA384TextField = hashSHA384TextField;
         this.hashSHA512TextField = hashSHA512TextField;
+        this.hashCRC32CTextField = hashCRC32CTextField;
+        this.hashXXHash32TextField = hashXXHash32TextField;
+        this.hashMurmur3TextField = hashMurmur3TextField;
         this.hashBCrypt2ATextField = hashBCrypt2ATextField;
         this.hashBCrypt2BTextField = hashBCrypt2BTextField;
         this.hashBCrypt2YTextField = hashBCrypt2YTextField;
+        this.hashBCryptCostSpinner = hashBCryptCostSpinner;
+        this.hashVerifyInputTextArea = hashVerifyInputTextArea;
+        this.hashVerifyButton = hashVerifyButton;
+        this.hashVerifyTable = hashVerifyTable;
+        this.hashBulkMethodComboBox = hashBulkMethodComboBox;
+        this.hashBulkButton = hashBulkButton;
+        this.hashBulkOutputPanel = hashBulkOutputPanel;
+        this.hashFileLabel = hashFileLabel;
+        this.hashFileButton = hashFileButton;
+        this.hashFileTable = hashFileTable;
     }
 
     public void setup() {
@@ -48,17 +148,161 @@ public class HashToolSetup extends AbstractToolSetup {
                 update();
             }
         });
+        hashBCryptCostSpinner.setModel(new SpinnerNumberModel(BCryptHashMethod.DEFAULT_COST, BCryptHashMethod.MIN_COST, MAX_UI_COST, 1));
+        hashBCryptCostSpinner.setToolTipText("Each increment doubles the time of a BCrypt hash, production systems use 10 to 12.");
+        hashBCryptCostSpinner.addChangeListener(e -> update());
+
+        hashVerifyInputTextArea.setToolTipText("One password and hash per line, separated by a tab or a space.");
+        hashVerifyTable.setModel(new DefaultTableModel(VERIFY_COLUMNS, 0));
+        hashVerifyButton.addActionListener(e -> verify());
+
+        LineHasher.METHODS.forEach(hashBulkMethodComboBox::addItem);
+        hashBulkMethodComboBox.setSelectedItem(SHA256HashMethod.NAME);
+        hashBulkButton.setToolTipText("Hash every line of the input on its own, one digest per line.");
+        hashBulkOutputPanel.add(new EditorTextField(bulkOutput, null, FileTypes.PLAIN_TEXT, true, false), BorderLayout.CENTER);
+        hashBulkButton.addActionListener(e -> hashEachLine());
+
+        hashFileButton.setToolTipText("Hash a file of any size with MD5 and the SHA digests, in the background.");
+        hashFileTable.setModel(new DefaultTableModel(FILE_COLUMNS, 0));
+        hashFileButton.addActionListener(e -> {
+            VirtualFile file = FileChooser.chooseFile(FileChooserDescriptorFactory.createSingleFileDescriptor(), hashFileButton, null, null);
+            if (file != null && file.isInLocalFileSystem()) {
+                hashFile(file.toNioPath(), file.getName(), file.getLength());
+            }
+        });
+    }
+
+    /**
+     * Hashes the file with the five digests in a single memory-mapped pass, as a cancellable background task
+     * showing its progress, then shows the hashes in the file table, apart from the hashes of the input.
+     */
+    private void hashFile(Path path, String name, long size) {
+        hashFileButton.setEnabled(false);
+        new Task.Backgroundable(null, "Hashing " + name, true) {
+            private Map<String, String> hashes;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                try {
+                    hashes = HashTools.hashFile(path, hashed -> {
+                        indicator.checkCanceled();
+                        indicator.setFraction(size == 0 ? 1 : (double) hashed / size);
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                hashFileLabel.setText(name + " (" + StringUtil.formatFileSize(size) + ")");
+                DefaultTableModel model = new DefaultTableModel(FILE_COLUMNS, 0);
+                hashes.forEach((method, hash) -> model.addRow(new Object[]{method, hash}));
+                hashFileTable.setModel(model);
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                hashFileLabel.setText("Unable to hash " + name + ": " + error.getMessage());
+                hashFileTable.setModel(new DefaultTableModel(FILE_COLUMNS, 0));
+            }
+
+            @Override
+            public void onFinished() {
+                hashFileButton.setEnabled(true);
+            }
+        }.queue();
+    }
+
+    /**
+     * Hashes the lines of the input in chunks on a pooled thread, each chunk in parallel, and appends
+     * the digests of each chunk to the output as soon as it is done.
+     */
+    private void hashEachLine() {
+        List<String> lines = List.of(hashInputTextArea.getText().split("\\R"));
+        String method = (String) hashBulkMethodComboBox.getSelectedItem();
+        long submitted = bulkGeneration.incrementAndGet();
+        WriteAction.run(() -> bulkOutput.setText(""));
+
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            for (int from = 0; from < lines.size() && bulkGeneration.get() == submitted; from += BULK_CHUNK_SIZE) {
+                char[] digests = LineHasher.hashLines(lines.subList(from, Math.min(lines.size(), from + BULK_CHUNK_SIZE)), method);
+                ApplicationManager.getApplication().invokeLater(() -> {
+                    if (bulkGeneration.get() == submitted) {
+                        WriteAction.run(() -> bulkOutput.insertString(bulkOutput.getTextLength(), new CharArrayCharSequence(digests)));
+                    }
+                }, ModalityState.any());
+            }
+        });
+    }
+
+    /**
+     * Verifies the pasted pairs in parallel, each one against the methods its hash format points to.
+     */
+    private void verify() {
+        List<Map.Entry<String, String>> pairs = HashTools.parsePasswordHashPairs(hashVerifyInputTextArea.getText());
+        hashVerifyButton.setEnabled(false);
+        verifyUpdater.submit(pairs, HashTools::verifyAll, verifications -> {
+            DefaultTableModel model = new DefaultTableModel(VERIFY_COLUMNS, 0);
+            for (HashTools.Verification verification : verifications) {
+                model.addRow(new Object[]{
+                    verification.input(),
+                    verification.hash(),
+                    verification.method() != null ? verification.method() : "Unknown format",
+                    verification.valid() ? "Valid" : "Invalid"
+                });
+            }
+            hashVerifyTable.setModel(model);
+            hashVerifyButton.setEnabled(true);
+        });
     }
 
+    /**
+     * The digests are computed together, they are cheap. The three BCrypt variants are computed side by side,
+     * each one shows up as soon as it is done; a newer input drops them.
+     */
     public void update() {
+        int cost = (int) getSpinnerValue(hashBCryptCostSpinner);
+        List<Function<String, Runnable>> computations = List.of(
+            input -> {
+                // only the characters typed since the last update are hashed when they were appended
+                Map<String, String> digests = typingHasher.hash(input);
+                return () -> {
+                    hashMD5TextField.setText(digests.get(MD5HashMethod.NAME));
+                    hashSHA1TextField.setText(digests.get(SHA1HashMethod.NAME));
+                    hashSHA256TextField.setText(digests.get(SHA256HashMethod.NAME));
+                    hashSHA384TextField.setText(digests.get(SHA384HashMethod.NAME));
+                    hashSHA512TextField.setText(digests.get(SHA512HashMethod.NAME));
+                };
+            },
+            input -> {
+                String[] checksums = {
+                    HashTools.generateCRC32C(input),
+                    HashTools.generateXXHash32(input),
+                    HashTools.generateMurmur3(input)
+                };
+                return () -> {
+                    hashCRC32CTextField.setText(checksums[0]);
+                    hashXXHash32TextField.setText(checksums[1]);
+                    hashMurmur3TextField.setText(checksums[2]);
+                };
+            }
+        );
         String input = hashInputTextArea.getText();
-        hashMD5TextField.setText(HashTools.generateMD5(input));
-        hashSHA1TextField.setText(HashTools.generateSHA1(input));
-        hashSHA256TextField.setText(HashTools.generateSHA256(input));
-        hashSHA384TextField.setText(HashTools.generateSHA384(input));
-        hashSHA512TextField.setText(HashTools.generateSHA512(input));
-        hashBCrypt2ATextField.setText(HashTools.generateBCrypt(input, BCryptVersion.BCryptVersion2a));
-        hashBCrypt2BTextField.setText(HashTools.generateBCrypt(input, BCryptVersion.BCryptVersion2b));
-        hashBCrypt2YTextField.setText(HashTools.generateBCrypt(input, BCryptVersion.BCryptVersion2y));
+        liveUpdater.submitAll(input, computations);
+        // BCrypt cannot be interrupted: each variant hashes one input at a time, the latest one waiting
+        bcryptUpdater.submitAll(input, List.of(
+            bcrypt(BCryptVersion.BCryptVersion2a, cost, hashBCrypt2ATextField),
+            bcrypt(BCryptVersion.BCryptVersion2b, cost, hashBCrypt2BTextField),
+            bcrypt(BCryptVersion.BCryptVersion2y, cost, hashBCrypt2YTextField)
+        ), bcryptExecutors);
+    }
+
+    private static Function<String, Runnable> bcrypt(BCryptVersion version, int cost, JBTextField output) {
+        return input -> {
+            String hash = HashTools.generateBCrypt(input, version, cost);
+            return () -> output.setText(hash);
+        };
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.github.bgomar.bgconsolelogger.toolwindow.setup;
 
 import com.github.bgomar.bgconsolelogger.tools.ConsoleLoggerSettings;
+import com.github.bgomar.bgconsolelogger.tools.PatternPreset;
 import com.github.bgomar.consolelogger.UpdateLogLinesAction;
 import com.intellij.ide.DataManager;
 import com.intellij.openapi.options.ConfigurableUi;
@@ -29,6 +30,8 @@ import com.intellij.openapi.project.Project;
 
 
 import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PropertiesConsoleLoggerToolSetup  extends AbstractToolSetup implements ConfigurableUi<ConsoleLoggerSettings> {
     private static JTextField propertiesConsoleLoggerTextField1 = new JTextField();
@@ -46,6 +49,7 @@ public class PropertiesConsoleLoggerToolSetup  extends AbstractToolSetup impleme
     private static JButton propertiesConsoleLoggerLoad1Button = new JButton();
     private static JButton propertiesConsoleLoggerCancelButton = new JButton();
     private static JButton propertiesConsoleLoggerRecheckButton = new JButton();
+    private static JButton propertiesConsoleLoggerRecheckProjectButton = new JButton();
 
 
     private static JButton propertiesConsoleLoggerDefaultButton1 = new JButton();
@@ -59,7 +63,8 @@ public class PropertiesConsoleLoggerToolSetup  extends AbstractToolSetup impleme
     private static JButton propertiesConsoleLoggerDefaultButton9 = new JButton();
 
     public static DialogPanel ui;
-    public int preset = 0;
+    // id of the preset shown in the fields
+    public String preset = ConsoleLoggerSettings.getRegistry().getActive().id;
 
     public PropertiesConsoleLoggerToolSetup(
             JTextField propertiesConsoleLoggerTextField1,
@@ -76,6 +81,7 @@ public class PropertiesConsoleLoggerToolSetup  extends AbstractToolSetup impleme
             JButton propertiesConsoleLoggerLoad1Button,
             JButton propertiesConsoleLoggerCancelButton,
             JButton propertiesConsoleLoggerRecheckButton,
+            JButton propertiesConsoleLoggerRecheckProjectButton,
             JButton propertiesConsoleLoggerDefaultButton1,
             JButton propertiesConsoleLoggerDefaultButton2,
             JButton propertiesConsoleLoggerDefaultButton3,
@@ -102,6 +108,7 @@ public class PropertiesConsoleLoggerToolSetup  extends AbstractToolSetup impleme
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerLoad1Button = propertiesConsoleLoggerLoad1Button;
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerCancelButton = propertiesConsoleLoggerCancelButton;
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerRecheckButton = propertiesConsoleLoggerRecheckButton;
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerRecheckProjectButton = propertiesConsoleLoggerRecheckProjectButton;
 
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton1 = propertiesConsoleLoggerDefaultButton1;
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton2 = propertiesConsoleLoggerDefaultButton2;
@@ -119,25 +126,17 @@ public class PropertiesConsoleLoggerToolSetup  extends AbstractToolSetup impleme
     }
 
     public void setup() {
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField1.setText(ConsoleLoggerSettings.getPattern(0));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField2.setText(ConsoleLoggerSettings.getPattern(1));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField3.setText(ConsoleLoggerSettings.getPattern(2));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField4.setText(ConsoleLoggerSettings.getPattern(3));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField5.setText(ConsoleLoggerSettings.getPattern(4));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField6.setText(ConsoleLoggerSettings.getPattern(5));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField7.setText(ConsoleLoggerSettings.getPattern(6));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField8.setText(ConsoleLoggerSettings.getPattern(7));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField9.setText(ConsoleLoggerSettings.getPattern(8));
-
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton1.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField1.setText((preset == 1) ? ConsoleLoggerSettings.DEFAULT_PATTERN_1 : ConsoleLoggerSettings.DEFAULT_PATTERN_10));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton2.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField2.setText((preset == 1) ? ConsoleLoggerSettings.DEFAULT_PATTERN_2 : ConsoleLoggerSettings.DEFAULT_PATTERN_11));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton3.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField3.setText((preset == 1) ? ConsoleLoggerSettings.DEFAULT_PATTERN_3 : ConsoleLoggerSettings.DEFAULT_PATTERN_12));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton4.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField4.setText((preset == 1) ? ConsoleLoggerSettings.DEFAULT_PATTERN_4 : ConsoleLoggerSettings.DEFAULT_PATTERN_13));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton5.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField5.setText((preset == 1) ? ConsoleLoggerSettings.DEFAULT_PATTERN_5 : ConsoleLoggerSettings.DEFAULT_PATTERN_14));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton6.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField6.setText((preset == 1) ? ConsoleLoggerSettings.DEFAULT_PATTERN_6 : ConsoleLoggerSettings.DEFAULT_PATTERN_15));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton7.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField7.setText((preset == 1) ? ConsoleLoggerSettings.DEFAULT_PATTERN_7 : ConsoleLoggerSettings.DEFAULT_PATTERN_16));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton8.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField8.setText((preset == 1) ? ConsoleLoggerSettings.DEFAULT_PATTERN_8 : ConsoleLoggerSettings.DEFAULT_PATTERN_17));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton9.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField9.setText((preset == 1) ? ConsoleLoggerSettings.DEFAULT_PATTERN_9 : ConsoleLoggerSettings.DEFAULT_PATTERN_18));
+        showPreset(preset);
+
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton1.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField1.setText(ConsoleLoggerSettings.getDefaultPattern(preset, 0)));
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton2.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField2.setText(ConsoleLoggerSettings.getDefaultPattern(preset, 1)));
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton3.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField3.setText(ConsoleLoggerSettings.getDefaultPattern(preset, 2)));
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton4.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField4.setText(ConsoleLoggerSettings.getDefaultPattern(preset, 3)));
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton5.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField5.setText(ConsoleLoggerSettings.getDefaultPattern(preset, 4)));
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton6.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField6.setText(ConsoleLoggerSettings.getDefaultPattern(preset, 5)));
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton7.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField7.setText(ConsoleLoggerSettings.getDefaultPattern(preset, 6)));
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton8.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField8.setText(ConsoleLoggerSettings.getDefaultPattern(preset, 7)));
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerDefaultButton9.addActionListener(e -> PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField9.setText(ConsoleLoggerSettings.getDefaultPattern(preset, 8)));
 
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerRecheckButton.addActionListener(e -> {
             ToolWindow toolWindow = ToolWindowManager.getInstance(ProjectManager.getInstance().getOpenProjects()[0]).getToolWindow("ConsoleLogger");
@@ -163,6 +162,25 @@ public class PropertiesConsoleLoggerToolSetup  extends AbstractToolSetup impleme
             }
         });
 
+        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerRecheckProjectButton.addActionListener(e -> {
+            ToolWindow toolWindow = ToolWindowManager.getInstance(ProjectManager.getInstance().getOpenProjects()[0]).getToolWindow("ConsoleLogger");
+            if (toolWindow == null) {
+                Messages.showMessageDialog("Tool window 'ConsoleLogger' not found.", "Error", Messages.getErrorIcon());
+                return;
+            }
+
+            DataContext dataContext = DataManager.getInstance().getDataContext(toolWindow.getComponent());
+
+            // Runs in the background over every file of the project
+            AnAction updateProjectLogLinesAction = ActionManager.getInstance().getAction("com.github.bgomar.consolelogger.UpdateProjectLogLinesAction");
+
+            if (updateProjectLogLinesAction != null) {
+                AnActionEvent event = AnActionEvent.createFromDataContext("", new Presentation(), dataContext);
+
+                updateProjectLogLinesAction.actionPerformed(event);
+            }
+        });
+
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerCancelButton.addActionListener(e -> {
             // Get the current project
             Project project = ProjectManager.getInstance().getOpenProjects().length > 0
@@ -200,94 +218,62 @@ public class PropertiesConsoleLoggerToolSetup  extends AbstractToolSetup impleme
 
 
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerSaveButton.addActionListener(e -> {
-            saveActiveLoggers();
-            if (preset == 1) {
-                save1Loggers();
-            } else if (preset == 2) {
-                save2Loggers();
-            }
+            savePreset();
+            ConsoleLoggerSettings.switchPreset(preset);
         });
 
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerLoad1Button.addActionListener(e -> {
-            if (preset == 1) {
-                save1Loggers();
-            } else if (preset == 2) {
-                save2Loggers();
-            }
-            load1Loggers();
+            savePreset();
+            showPreset(ConsoleLoggerSettings.PRESET_1);
         });
 
         PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerLoad2Button.addActionListener(e -> {
-            if (preset == 1) {
-                save1Loggers();
-            } else if (preset == 2) {
-                save2Loggers();
-            }
-            load2Loggers();
-
+            savePreset();
+            showPreset(ConsoleLoggerSettings.PRESET_2);
         });
     }
 
-    private void saveActiveLoggers() {
-        ConsoleLoggerSettings.setPattern(0, propertiesConsoleLoggerTextField1.getText());
-        ConsoleLoggerSettings.setPattern(1, propertiesConsoleLoggerTextField2.getText());
-        ConsoleLoggerSettings.setPattern(2, propertiesConsoleLoggerTextField3.getText());
-        ConsoleLoggerSettings.setPattern(3, propertiesConsoleLoggerTextField4.getText());
-        ConsoleLoggerSettings.setPattern(4, propertiesConsoleLoggerTextField5.getText());
-        ConsoleLoggerSettings.setPattern(5, propertiesConsoleLoggerTextField6.getText());
-        ConsoleLoggerSettings.setPattern(6, propertiesConsoleLoggerTextField7.getText());
-        ConsoleLoggerSettings.setPattern(7, propertiesConsoleLoggerTextField8.getText());
-        ConsoleLoggerSettings.setPattern(8, propertiesConsoleLoggerTextField9.getText());
+    private static JTextField[] fields() {
+        return new JTextField[]{
+                propertiesConsoleLoggerTextField1, propertiesConsoleLoggerTextField2, propertiesConsoleLoggerTextField3,
+                propertiesConsoleLoggerTextField4, propertiesConsoleLoggerTextField5, propertiesConsoleLoggerTextField6,
+                propertiesConsoleLoggerTextField7, propertiesConsoleLoggerTextField8, propertiesConsoleLoggerTextField9
+        };
     }
 
-    private void save1Loggers() {
-        ConsoleLoggerSettings.setPattern(9, propertiesConsoleLoggerTextField1.getText());
-        ConsoleLoggerSettings.setPattern(10, propertiesConsoleLoggerTextField2.getText());
-        ConsoleLoggerSettings.setPattern(11, propertiesConsoleLoggerTextField3.getText());
-        ConsoleLoggerSettings.setPattern(12, propertiesConsoleLoggerTextField4.getText());
-        ConsoleLoggerSettings.setPattern(13, propertiesConsoleLoggerTextField5.getText());
-        ConsoleLoggerSettings.setPattern(14, propertiesConsoleLoggerTextField6.getText());
-        ConsoleLoggerSettings.setPattern(15, propertiesConsoleLoggerTextField7.getText());
-        ConsoleLoggerSettings.setPattern(16, propertiesConsoleLoggerTextField8.getText());
-        ConsoleLoggerSettings.setPattern(17, propertiesConsoleLoggerTextField9.getText());
-    }
-
-    private void save2Loggers() {
-        ConsoleLoggerSettings.setPattern(18, propertiesConsoleLoggerTextField1.getText());
-        ConsoleLoggerSettings.setPattern(19, propertiesConsoleLoggerTextField2.getText());
-        ConsoleLoggerSettings.setPattern(20, propertiesConsoleLoggerTextField3.getText());
-        ConsoleLoggerSettings.setPattern(21, propertiesConsoleLoggerTextField4.getText());
-        ConsoleLoggerSettings.setPattern(22, propertiesConsoleLoggerTextField5.getText());
-        ConsoleLoggerSettings.setPattern(23, propertiesConsoleLoggerTextField6.getText());
-        ConsoleLoggerSettings.setPattern(24, propertiesConsoleLoggerTextField7.getText());
-        ConsoleLoggerSettings.setPattern(25, propertiesConsoleLoggerTextField8.getText());
-        ConsoleLoggerSettings.setPattern(26, propertiesConsoleLoggerTextField9.getText());
-    }
-
-    private void load1Loggers() {
-        preset = 1;
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField1.setText(ConsoleLoggerSettings.getPattern(9));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField2.setText(ConsoleLoggerSettings.getPattern(10));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField3.setText(ConsoleLoggerSettings.getPattern(11));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField4.setText(ConsoleLoggerSettings.getPattern(12));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField5.setText(ConsoleLoggerSettings.getPattern(13));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField6.setText(ConsoleLoggerSettings.getPattern(14));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField7.setText(ConsoleLoggerSettings.getPattern(15));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField8.setText(ConsoleLoggerSettings.getPattern(16));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField9.setText(ConsoleLoggerSettings.getPattern(17));
+    /**
+     * Writes the fields into the preset shown, its patterns past the ninth are kept.
+     */
+    private void savePreset() {
+        PatternPreset shown = ConsoleLoggerSettings.getRegistry().getPreset(preset);
+        if (shown == null) {
+            return;
+        }
+        List<String> patterns = new ArrayList<>(shown.patterns);
+        JTextField[] fields = fields();
+        for (int i = 0; i < fields.length; i++) {
+            if (i < patterns.size()) {
+                patterns.set(i, fields[i].getText());
+            } else {
+                patterns.add(fields[i].getText());
+            }
+        }
+        ConsoleLoggerSettings.setPresetPatterns(shown.id, shown.name, patterns);
     }
 
-    private void load2Loggers() {
-        preset = 2;
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField1.setText(ConsoleLoggerSettings.getPattern(18));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField2.setText(ConsoleLoggerSettings.getPattern(19));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField3.setText(ConsoleLoggerSettings.getPattern(20));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField4.setText(ConsoleLoggerSettings.getPattern(21));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField5.setText(ConsoleLoggerSettings.getPattern(22));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField6.setText(ConsoleLoggerSettings.getPattern(23));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField7.setText(ConsoleLoggerSettings.getPattern(24));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField8.setText(ConsoleLoggerSettings.getPattern(25));
-        PropertiesConsoleLoggerToolSetup.propertiesConsoleLoggerTextField9.setText(ConsoleLoggerSettings.getPattern(26));
+    /**
+     * Shows the preset in the fields, it becomes the active one on Save.
+     */
+    private void showPreset(String id) {
+        PatternPreset shown = ConsoleLoggerSettings.getRegistry().getPreset(id);
+        if (shown == null) {
+            return;
+        }
+        preset = id;
+        JTextField[] fields = fields();
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].setText(i < shown.patterns.size() ? shown.patterns.get(i) : ConsoleLoggerSettings.getDefaultPattern(id, i));
+        }
     }
 
 
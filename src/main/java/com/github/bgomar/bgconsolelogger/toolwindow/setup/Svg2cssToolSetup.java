@@ -35,9 +35,13 @@ public class Svg2cssToolSetup extends AbstractToolSetup {
 
             @Override
             public void keyReleased(KeyEvent e) {
-
-                svg2cssEncodedTextArea.setText(Svg2css.encodeURL(svg2cssDecodedTextArea.getText()));
-                svg2CssTextArea.setText(Svg2css.svg2cssURL(svg2cssEncodedTextArea.getText()));
+                liveUpdater.submit(svg2cssDecodedTextArea.getText(), decoded -> {
+                    String encoded = Svg2css.encodeURL(decoded);
+                    return new String[]{encoded, Svg2css.svg2cssURL(encoded)};
+                }, results -> {
+                    svg2cssEncodedTextArea.setText(results[0]);
+                    svg2CssTextArea.setText(results[1]);
+                });
 
             }
         });
@@ -52,10 +56,13 @@ public class Svg2cssToolSetup extends AbstractToolSetup {
 
             @Override
             public void keyReleased(KeyEvent e) {
-
-                svg2cssDecodedTextArea.setText(Svg2css.decodeURL(svg2cssEncodedTextArea.getText()));
-                svg2CssTextArea.setText(Svg2css.svg2cssURL(svg2cssEncodedTextArea.getText()));
-
+                liveUpdater.submit(svg2cssEncodedTextArea.getText(), encoded -> new String[]{
+                        Svg2css.decodeURL(encoded),
+                        Svg2css.svg2cssURL(encoded)
+                }, results -> {
+                    svg2cssDecodedTextArea.setText(results[0]);
+                    svg2CssTextArea.setText(results[1]);
+                });
 
             }
         });
@@ -70,12 +77,13 @@ public class Svg2cssToolSetup extends AbstractToolSetup {
 
             @Override
             public void keyReleased(KeyEvent e) {
-
-                svg2cssEncodedTextArea.setText(Svg2css.css2svgURL(svg2CssTextArea.getText()));
-                svg2cssDecodedTextArea.setText(Svg2css.decodeURL(svg2cssEncodedTextArea.getText()));
-
-
-
+                liveUpdater.submit(svg2CssTextArea.getText(), css -> {
+                    String encoded = Svg2css.css2svgURL(css);
+                    return new String[]{encoded, Svg2css.decodeURL(encoded)};
+                }, results -> {
+                    svg2cssEncodedTextArea.setText(results[0]);
+                    svg2cssDecodedTextArea.setText(results[1]);
+                });
             }
         });
     }
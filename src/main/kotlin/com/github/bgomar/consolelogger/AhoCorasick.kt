@@ -0,0 +1,81 @@
+package com.github.bgomar.consolelogger
+
+/**
+ * Multi-pattern literal matcher (Aho-Corasick automaton).
+ * Finds every occurrence of every keyword in a single left-to-right pass over the text.
+ */
+class AhoCorasick(keywords: List<String>) {
+
+  // per state: sorted transition chars and the matching target states
+  private val keys: Array<CharArray>
+  private val targets: Array<IntArray>
+  private val fail: IntArray
+  // per state: ids of the keywords ending in that state (including the ones reached through fail links)
+  private val outputs: Array<IntArray>
+  private val lengths: IntArray = keywords.map { it.length }.toIntArray()
+
+  init {
+    val edges = mutableListOf<MutableMap<Char, Int>>(sortedMapOf())
+    val ends = mutableListOf<MutableList<Int>>(mutableListOf())
+
+    keywords.forEachIndexed { id, keyword ->
+      if (keyword.isEmpty()) return@forEachIndexed
+      var state = 0
+      for (c in keyword) {
+        state = edges[state].getOrPut(c) {
+          edges.add(sortedMapOf())
+          ends.add(mutableListOf())
+          edges.size - 1
+        }
+      }
+      ends[state].add(id)
+    }
+
+    keys = Array(edges.size) { edges[it].keys.toCharArray() }
+    targets = Array(edges.size) { edges[it].values.toIntArray() }
+    fail = IntArray(edges.size)
+
+    // breadth first, so the fail state of a node is always complete before its children
+    val queue = ArrayDeque<Int>()
+    targets[0].forEach { queue.addLast(it) }
+    while (queue.isNotEmpty()) {
+      val state = queue.removeFirst()
+      for (i in keys[state].indices) {
+        val c = keys[state][i]
+        val child = targets[state][i]
+        var f = fail[state]
+        while (f != 0 && transition(f, c) < 0) f = fail[f]
+        val next = transition(f, c)
+        fail[child] = if (next >= 0 && next != child) next else 0
+        ends[child].addAll(ends[fail[child]])
+        queue.addLast(child)
+      }
+    }
+    outputs = Array(edges.size) { ends[it].distinct().toIntArray() }
+  }
+
+  private fun transition(state: Int, c: Char): Int {
+    val i = keys[state].binarySearch(c)
+    return if (i >= 0) targets[state][i] else -1
+  }
+
+  /**
+   * Advances the automaton from [state] with the next character of the text.
+   */
+  fun step(state: Int, c: Char): Int {
+    var s = state
+    while (true) {
+      val next = transition(s, c)
+      if (next >= 0) return next
+      if (s == 0) return 0
+      s = fail[s]
+    }
+  }
+
+  /**
+   * Ids of the keywords ending at the character that led to [state].
+   */
+  fun matchesAt(state: Int): IntArray = outputs[state]
+
+  fun keywordLength(keyword: Int): Int = lengths[keyword]
+}
@@ -1,20 +1,60 @@
 package com.github.bgomar.consolelogger
 
-import com.intellij.lang.Language
+import com.intellij.lang.injection.InjectedLanguageManager
+import com.intellij.lang.javascript.JavascriptLanguage
+import com.intellij.lang.xml.XMLLanguage
+import com.intellij.openapi.actionSystem.ActionUpdateThread
 import com.intellij.openapi.actionSystem.AnActionEvent
 import com.intellij.openapi.actionSystem.DefaultActionGroup
 import com.intellij.openapi.actionSystem.PlatformDataKeys
+import com.intellij.psi.PsiFile
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
 
 class ConsoleLoggerActionsGroup : DefaultActionGroup() {
+
+    private enum class JsContent {
+        // the whole file is JavaScript, TypeScript, ...
+        ALL,
+        // JavaScript only in some fragments, e.g. <script> blocks of HTML or Vue files, or injections
+        MIXED,
+        NONE
+    }
+
+    // the verdict only reads the PSI, which is allowed in a background update
+    override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.BGT
+
     override fun update(e: AnActionEvent) {
         // display consolelogger menu if the cursor is in a javascript code section
-        e.presentation.isVisible = e.getData(PlatformDataKeys.EDITOR)?.let { editor ->
-            val js = Language.findLanguageByID("JavaScript")
-            val psiFile = e.getData(PlatformDataKeys.PSI_FILE)
-            val offset = editor.caretModel.currentCaret.offset
-            val psiElement = psiFile?.findElementAt(offset)
-            val isJs = psiElement?.language == js || psiElement?.language?.baseLanguage == js
-            isJs
-        } ?: false
+        val editor = e.getData(PlatformDataKeys.EDITOR)
+        val psiFile = e.getData(PlatformDataKeys.PSI_FILE)
+        e.presentation.isVisible = editor != null && psiFile != null && when (jsContent(psiFile)) {
+            JsContent.ALL -> true
+            JsContent.NONE -> false
+            JsContent.MIXED -> isJsAt(psiFile, editor.caretModel.currentCaret.offset)
+        }
+    }
+
+    /**
+     * The JavaScript content of the file, computed once per modification of the file.
+     */
+    private fun jsContent(psiFile: PsiFile): JsContent = CachedValuesManager.getCachedValue(psiFile) {
+        val languages = psiFile.viewProvider.languages
+        val content = when {
+            psiFile.language.isKindOf(JavascriptLanguage.INSTANCE) -> JsContent.ALL
+            languages.size > 1 || psiFile.language.isKindOf(XMLLanguage.INSTANCE) -> JsContent.MIXED
+            else -> JsContent.NONE
+        }
+        CachedValueProvider.Result.create(content, psiFile)
+    }
+
+    /**
+     * Whether the caret of a mixed-language file is in a JavaScript fragment, injected ones included.
+     */
+    private fun isJsAt(psiFile: PsiFile, offset: Int): Boolean {
+        val psiElement = psiFile.findElementAt(offset)
+        if (psiElement != null && psiElement.language.isKindOf(JavascriptLanguage.INSTANCE)) return true
+        val injected = InjectedLanguageManager.getInstance(psiFile.project).findInjectedElementAt(psiFile, offset)
+        return injected != null && injected.language.isKindOf(JavascriptLanguage.INSTANCE)
     }
 }
@@ -0,0 +1,143 @@
+package com.github.bgomar.consolelogger
+
+import com.github.bgomar.bgconsolelogger.tools.ConsoleLoggerSettings
+import com.intellij.ide.util.PropertiesComponent
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.util.Alarm
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.FileContent
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.EnumeratorIntegerDescriptor
+import com.intellij.util.io.KeyDescriptor
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * Indexes the logs generated by ConsoleLogger: template index -> line start offsets in the file.
+ *
+ * Removal and the counts of the removal dialog only visit the files holding logs instead of the whole project.
+ * The version is constant: the index is rebuilt by [TemplatesListener] when the templates of
+ * [ConsoleLoggerSettings] differ from the ones it was built with.
+ */
+class ConsoleLoggerLogIndex : FileBasedIndexExtension<Int, IntArray>() {
+
+  override fun getName(): ID<Int, IntArray> = NAME
+
+  override fun getIndexer(): DataIndexer<Int, IntArray, FileContent> = DataIndexer { content ->
+    LogRemovalEngine.fromSettings().findLogSites(content.contentAsText)
+      .groupBy({ it.template }, { it.range.startOffset })
+      .mapValues { it.value.toIntArray() }
+  }
+
+  override fun getKeyDescriptor(): KeyDescriptor<Int> = EnumeratorIntegerDescriptor.INSTANCE
+
+  override fun getValueExternalizer(): DataExternalizer<IntArray> = OffsetsExternalizer
+
+  override fun getVersion(): Int = VERSION
+
+  override fun getInputFilter(): FileBasedIndex.InputFilter = FileBasedIndex.InputFilter { file ->
+    file.extension?.lowercase() in EXTENSIONS
+  }
+
+  override fun dependsOnFileContent(): Boolean = true
+
+  private object OffsetsExternalizer : DataExternalizer<IntArray> {
+    override fun save(out: DataOutput, offsets: IntArray) {
+      DataInputOutputUtil.writeINT(out, offsets.size)
+      // offsets are ascending, store the deltas to keep the varints short
+      var previous = 0
+      for (offset in offsets) {
+        DataInputOutputUtil.writeINT(out, offset - previous)
+        previous = offset
+      }
+    }
+
+    override fun read(input: DataInput): IntArray {
+      val offsets = IntArray(DataInputOutputUtil.readINT(input))
+      var previous = 0
+      for (i in offsets.indices) {
+        previous += DataInputOutputUtil.readINT(input)
+        offsets[i] = previous
+      }
+      return offsets
+    }
+  }
+
+  /**
+   * Re-indexes the files once the templates differ from the indexed ones, after the edits pause:
+   * loading the settings or typing a pattern does not rebuild the index on every event.
+   * The indexed templates are kept across restarts, so templates changed in between are caught on load.
+   */
+  class TemplatesListener : ConsoleLoggerSettings.PatternsListener {
+    override fun patternsChanged() {
+      rebuildAlarm.cancelAllRequests()
+      rebuildAlarm.addRequest(::rebuildIfChanged, REBUILD_DELAY_MS)
+    }
+
+    private fun rebuildIfChanged() {
+      val properties = PropertiesComponent.getInstance()
+      val templates = templates()
+      val indexed = properties.getList(INDEXED_TEMPLATES_KEY)
+      if (templates == indexed) return
+      properties.setList(INDEXED_TEMPLATES_KEY, templates)
+      // the first time, the index was just built from scratch with the current templates
+      if (indexed != null) FileBasedIndex.getInstance().requestRebuild(NAME)
+    }
+  }
+
+  companion object {
+    val NAME: ID<Int, IntArray> = ID.create("com.github.bgomar.consolelogger.LogIndex")
+
+    internal val EXTENSIONS = setOf("js", "jsx", "mjs", "cjs", "ts", "tsx", "mts", "cts", "vue", "svelte", "astro", "html", "htm")
+
+    private const val VERSION = 2
+    private const val REBUILD_DELAY_MS = 1000
+
+    // the templates the index was built with
+    private const val INDEXED_TEMPLATES_KEY = "com.github.bgomar.consolelogger.LogIndex.templates"
+
+    private val rebuildAlarm by lazy { Alarm(Alarm.ThreadToUse.POOLED_THREAD, ApplicationServicePlaceholder.INSTANCE) }
+
+    private fun templates(): List<String> =
+      ConsoleLoggerSettings.getCompiledPatterns().map { it.source }
+
+    /**
+     * Files of the scope holding at least one generated log. Requires smart mode.
+     */
+    fun getFilesWithLogs(project: Project, scope: GlobalSearchScope): Set<VirtualFile> {
+      val index = FileBasedIndex.getInstance()
+      val files = mutableSetOf<VirtualFile>()
+      for (template in index.getAllKeys(NAME, project)) {
+        files.addAll(index.getContainingFiles(NAME, template, scope))
+      }
+      return files
+    }
+
+    /**
+     * Number of generated logs per template index in the scope. Requires smart mode.
+     */
+    fun countLogs(project: Project, scope: GlobalSearchScope): Map<Int, Int> {
+      val index = FileBasedIndex.getInstance()
+      val counts = mutableMapOf<Int, Int>()
+      for (template in index.getAllKeys(NAME, project)) {
+        index.processValues(NAME, template, null, { _, offsets ->
+          counts.merge(template, offsets.size, Int::plus)
+          true
+        }, scope)
+      }
+      return counts.filterValues { it > 0 }
+    }
+
+    /**
+     * Line start offsets of the generated logs of a file, per template index. Requires smart mode.
+     */
+    fun getLogSites(project: Project, file: VirtualFile): Map<Int, IntArray> =
+      FileBasedIndex.getInstance().getFileData(NAME, file, project)
+  }
+}
@@ -1,6 +1,7 @@
 package com.github.bgomar.consolelogger
 
 import com.intellij.openapi.ui.DialogWrapper
+import com.intellij.ui.components.JBRadioButton
 import com.intellij.ui.dsl.builder.panel
 import com.intellij.ui.dsl.builder.toMutableProperty
 import java.awt.Dimension
@@ -8,9 +9,15 @@ import javax.swing.JComponent
 
 enum class Scope { CURRENT_FILE, PROJECT }
 
+/**
+ * Asks where to remove the logs. The number of logs of each scope is shown once it is known, see [showCounts].
+ */
 class ConsoleLoggerRemoveDlg : DialogWrapper(false) {
   var scope: Scope
 
+  private lateinit var fileButton: JBRadioButton
+  private lateinit var projectButton: JBRadioButton
+
   init {
     title = "Remove ConsoleLogger's Logs"
     scope = Scope.CURRENT_FILE
@@ -21,10 +28,10 @@ class ConsoleLoggerRemoveDlg : DialogWrapper(false) {
     val pan = panel {
       buttonsGroup("Delete Loggers In File? ") {
         row {
-          radioButton("Yes, remove all loggers from current file.", Scope.CURRENT_FILE)
+          fileButton = radioButton(fileText(null), Scope.CURRENT_FILE).component
         }
         row {
-          radioButton("No, find loggers in Project", Scope.PROJECT)
+          projectButton = radioButton(projectText(null), Scope.PROJECT).component
         }
       }.bind(::scope.toMutableProperty(), Scope::class.java)
     }
@@ -32,4 +39,18 @@ class ConsoleLoggerRemoveDlg : DialogWrapper(false) {
     pan.minimumSize = Dimension(300, 100)
     return pan
   }
+
+  /**
+   * Adds the number of logs to the scopes, null when unknown. Called on the EDT.
+   */
+  fun showCounts(fileLogs: Int?, projectLogs: Int?) {
+    fileButton.text = fileText(fileLogs)
+    projectButton.text = projectText(projectLogs)
+  }
+
+  private fun fileText(logs: Int?) = "Yes, remove all loggers from current file${count(logs)}."
+
+  private fun projectText(logs: Int?) = "No, find loggers in Project${count(logs)}"
+
+  private fun count(logs: Int?): String = if (logs == null) "" else " ($logs logs)"
 }
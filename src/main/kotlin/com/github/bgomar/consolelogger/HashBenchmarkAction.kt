@@ -0,0 +1,31 @@
+package com.github.bgomar.consolelogger
+
+import com.github.bgomar.bgconsolelogger.tools.HashTools
+import com.intellij.notification.NotificationType
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.Task
+
+/**
+ * Internal action measuring the throughput of the hash methods of the hash tool on this machine,
+ * in the background as it takes a few seconds.
+ */
+class HashBenchmarkAction : AnAction() {
+
+  override fun actionPerformed(e: AnActionEvent) {
+    val project = e.project ?: return
+    object : Task.Backgroundable(project, "Benchmarking hash methods", false) {
+      private var throughput: Map<String, Double> = emptyMap()
+
+      override fun run(indicator: ProgressIndicator) {
+        throughput = HashTools.benchmark()
+      }
+
+      override fun onSuccess() {
+        val content = throughput.entries.joinToString("<br>") { (method, mbs) -> "$method: ${"%.1f".format(mbs)} MB/s" }
+        showFullNotification(project, createNotification("Hash throughput", content, NotificationType.INFORMATION))
+      }
+    }.queue()
+  }
+}
@@ -0,0 +1,130 @@
+package com.github.bgomar.consolelogger
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.editor.Caret
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.editor.event.CaretEvent
+import com.intellij.openapi.editor.event.CaretListener
+import com.intellij.openapi.editor.event.EditorFactoryEvent
+import com.intellij.openapi.editor.event.EditorFactoryListener
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.util.Disposer
+import com.intellij.openapi.util.Key
+import com.intellij.util.Alarm
+import com.intellij.util.concurrency.AppExecutorUtil
+
+/**
+ * Resolves the insertion targets of the carets of an editor in the background once the carets settle,
+ * so [ConsoleLoggerAction] only has to write.
+ *
+ * The targets are cached against the modification stamp of the document and the caret positions;
+ * any edit or caret move makes them stale until the next background pass.
+ */
+class InsertionTargetPrecomputer private constructor(private val editor: Editor) : CaretListener, Disposable {
+
+  private data class CaretKey(val offset: Int, val selectionStart: Int, val selectionEnd: Int) {
+    constructor(caret: Caret) : this(caret.offset, if (caret.hasSelection()) caret.selectionStart else -1, caret.selectionEnd)
+  }
+
+  // targets resolved while indexing come from the lexer only and are not reused once the PSI is back
+  private class Precomputed(val stamp: Long, val dumb: Boolean, val targets: Map<CaretKey, InsertionTarget?>)
+
+  @Volatile
+  private var precomputed: Precomputed? = null
+  private val alarm = Alarm(Alarm.ThreadToUse.SWING_THREAD, this)
+
+  init {
+    editor.caretModel.addCaretListener(this, this)
+    schedule()
+  }
+
+  override fun caretPositionChanged(event: CaretEvent) = schedule()
+
+  override fun caretAdded(event: CaretEvent) = schedule()
+
+  override fun caretRemoved(event: CaretEvent) = schedule()
+
+  private fun schedule() {
+    alarm.cancelAllRequests()
+    alarm.addRequest(::precompute, DELAY_MS)
+  }
+
+  private fun precompute() {
+    val project = editor.project ?: return
+    if (editor.isDisposed) return
+    val document = editor.document
+    val carets = editor.caretModel.allCarets.map { CaretKey(it) to it.selectedText }
+
+    ReadAction.nonBlocking<Precomputed> {
+      val psiFile by lazy { LogInsertion.resolvePsiFile(editor) }
+      val targets = carets.associate { (key, selectedText) ->
+        key to InsertionTargetResolver.resolve(
+          project, document, { psiFile }, key.offset, key.selectionStart, key.selectionEnd, selectedText
+        )
+      }
+      Precomputed(document.modificationStamp, DumbService.isDumb(project), targets)
+    }
+      .withDocumentsCommitted(project)
+      .expireWith(this)
+      .coalesceBy(this)
+      .finishOnUiThread(ModalityState.any()) { precomputed = it }
+      .submit(AppExecutorUtil.getAppExecutorService())
+  }
+
+  /**
+   * The precomputed target of the caret, or [resolve] when there is none for the current document and caret.
+   */
+  private inline fun targetFor(caret: Caret, resolve: () -> InsertionTarget?): InsertionTarget? {
+    val current = precomputed
+    val key = CaretKey(caret)
+    if (current != null && current.stamp == editor.document.modificationStamp && key in current.targets &&
+      (!current.dumb || editor.project?.let { DumbService.isDumb(it) } == true)
+    ) {
+      return current.targets[key]
+    }
+    return resolve()
+  }
+
+  override fun dispose() {
+    precomputed = null
+  }
+
+  /**
+   * Attaches a precomputer to the editors of JavaScript-family files.
+   */
+  class EditorListener : EditorFactoryListener {
+    override fun editorCreated(event: EditorFactoryEvent) {
+      val editor = event.editor
+      if (editor.project == null) return
+      val file = FileDocumentManager.getInstance().getFile(editor.document) ?: return
+      if (file.extension?.lowercase() !in ConsoleLoggerLogIndex.EXTENSIONS) return
+
+      editor.putUserData(KEY, InsertionTargetPrecomputer(editor))
+    }
+
+    override fun editorReleased(event: EditorFactoryEvent) {
+      val precomputer = event.editor.getUserData(KEY) ?: return
+      event.editor.putUserData(KEY, null)
+      Disposer.dispose(precomputer)
+    }
+  }
+
+  companion object {
+    private val KEY = Key.create<InsertionTargetPrecomputer>("com.github.bgomar.consolelogger.InsertionTargetPrecomputer")
+    private const val DELAY_MS = 150
+
+    /**
+     * The insertion target of every caret of the editor, precomputed when still valid,
+     * resolved with [resolve] otherwise. Must be called on the EDT.
+     */
+    fun resolveTargets(editor: Editor, resolve: (Caret) -> InsertionTarget?): List<InsertionTarget> {
+      val precomputer = editor.getUserData(KEY)
+      return editor.caretModel.allCarets.mapNotNull { caret ->
+        if (precomputer != null) precomputer.targetFor(caret) { resolve(caret) } else resolve(caret)
+      }
+    }
+  }
+}
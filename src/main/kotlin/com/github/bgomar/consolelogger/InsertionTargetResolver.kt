@@ -0,0 +1,238 @@
+package com.github.bgomar.consolelogger
+
+import com.intellij.lang.javascript.psi.JSBlockStatement
+import com.intellij.lang.javascript.psi.JSElement
+import com.intellij.lang.javascript.psi.JSFunctionExpression
+import com.intellij.lang.javascript.psi.JSIfStatement
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.PersistentFSConstants
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.util.PsiTreeUtil
+
+/**
+ * Finds where a log goes for a caret and what it logs, from the PSI only, so it can run
+ * in a background read action as well as in the action itself.
+ */
+object InsertionTargetResolver {
+
+  /**
+   * Resolves the target of a caret on the PSI, or with [LexerInsertionResolver] while the IDE is indexing,
+   * for files above the PSI size limit and when the PSI has nothing at the caret.
+   * [psiFile] is only called when the PSI is used.
+   */
+  fun resolve(
+    project: Project,
+    document: Document,
+    psiFile: () -> PsiFile,
+    caretOffset: Int,
+    selectionStart: Int,
+    selectionEnd: Int,
+    selectedText: String?
+  ): InsertionTarget? {
+    val lexerOnly = DumbService.isDumb(project) || document.textLength > PersistentFSConstants.getMaxIntellisenseFileSize()
+    if (!lexerOnly) {
+      resolveInsertionTarget(psiFile(), caretOffset, selectionStart, selectedText)?.let { return it }
+    }
+    return LexerInsertionResolver.resolveInsertionTarget(
+      project, document.immutableCharSequence, caretOffset, selectionStart, selectionEnd, selectedText
+    )
+  }
+
+  /**
+   * search for the insertion point of a caret, without moving it
+   * return where to insert and the name of the element to log
+   */
+  fun resolveInsertionTarget(psiFile: PsiFile, caretOffset: Int, selectionStart: Int, selectedText: String?): InsertionTarget? {
+    val valueToLog: String
+    val element: PsiElement?
+    val offset: Int
+
+    // If the user has selected text (e.g., a variable)
+    if (selectionStart >= 0) {
+      offset = selectionStart
+      element = psiFile.findElementAt(offset)
+      valueToLog = selectedText ?: "<CR>"
+    } else {
+      offset = caretOffset
+      val elementAtCursor = psiFile.findElementAt(offset)
+
+      // on an empty line, log right there
+      if (elementAtCursor?.text?.replace(" ", "")?.endsWith("\n\n") == true) return InsertionTarget(caretOffset, "", false)
+
+      element = findElementToLogForSelection(elementAtCursor ?: return null)
+      valueToLog = element?.text?.replace(" ", "") ?: "<CR>"
+    }
+
+    if (valueToLog.startsWith("\n") && element?.hasParentOfType(JsKind.OBJECT_LITERAL, 2) != true) {
+      return InsertionTarget(caretOffset, "", true)
+    }
+
+    val block = findBlockForElement(element ?: psiFile.findElementAt(offset) ?: return null)
+
+    val insertionOffset = when {
+      // If it's an arrow function, insert inside the function body
+      block is JSFunctionExpression -> {
+        val body = block.childOfType(JSBlockStatement::class.java)
+        if (body != null) {
+          // Inside the block, after the opening '{'
+          body.textOffset + 1
+        } else {
+          // Handle the case where the arrow function has an expression body
+          // At the end of the expression
+          block.childOfType(JSElement::class.java)?.textRange?.endOffset ?: caretOffset
+        }
+      }
+      // For "if" statements, insert line above
+      block is JSIfStatement -> block.prevSibling.textRange.startOffset - 1
+      block != null -> block.textRange.endOffset
+      else -> caretOffset
+    }
+
+    return InsertionTarget(insertionOffset, valueToLog, true)
+  }
+
+  private fun PsiElement.kind(): JsKind = JsElementKinds.kindOf(this)
+
+  /**
+   * Finds a child of the specified type in the PSI tree.
+   */
+  fun <T : PsiElement> PsiElement.childOfType(klass: Class<T>): T? = PsiTreeUtil.getChildOfType(this, klass)
+
+  /**
+   * Whether the text of the element is [expected] once trimmed, without materializing the text of leaves.
+   */
+  private fun trimmedTextIs(element: PsiElement, expected: Char, spacesOnly: Boolean = false): Boolean {
+    // a composite builds its text, only a short one can be a single character among whitespace
+    if (element.firstChild != null && element.textLength > SHORT_COMPOSITE) return false
+    val text = element.node.chars
+    var start = 0
+    var end = text.length
+    while (start < end && isTrimmed(text[start], spacesOnly)) start++
+    while (end > start && isTrimmed(text[end - 1], spacesOnly)) end--
+    return end - start == 1 && text[start] == expected
+  }
+
+  private fun isTrimmed(c: Char, spacesOnly: Boolean): Boolean = if (spacesOnly) c == ' ' else c.isWhitespace()
+
+  /**
+   * Whether the text starts with an empty line, spaces aside.
+   */
+  private fun startsWithBlankLine(element: PsiElement): Boolean {
+    val text = element.node.chars
+    var newLines = 0
+    for (c in text) {
+      if (c == ' ') continue
+      if (c != '\n') return false
+      if (++newLines == 2) return true
+    }
+    return false
+  }
+
+  /**
+   * find the block containing this element
+   */
+  private fun findBlockForElement(element: PsiElement?): PsiElement? {
+    var currentElement = element
+    while (currentElement != null) {
+      when (currentElement.kind()) {
+        JsKind.EXPRESSION_STATEMENT -> if (currentElement.parent?.kind() != JsKind.FILE) return currentElement
+        JsKind.VAR_STATEMENT, JsKind.IF_STATEMENT,
+        JsKind.BLOCK_STATEMENT, JsKind.FUNCTION, JsKind.FUNCTION_EXPRESSION -> return currentElement
+        else -> if (trimmedTextIs(currentElement, '{')) return currentElement
+      }
+      currentElement = currentElement.parent
+    }
+    return null
+  }
+
+  /**
+   * when the cursor is on a loggable identifier
+   */
+  private fun findElementToLogForSelection(
+    element: PsiElement
+  ): PsiElement? {
+
+    val elementType = element.kind()
+    val parentElementType = element.parent.kind()
+    when {
+      elementType == JsKind.WHITE_SPACE && startsWithBlankLine(element) -> return null
+      element.prevSibling != null
+        && element.prevSibling.kind() == JsKind.DOT
+      -> return findElementToLogForSelection(element.parent)
+
+      (elementType != JsKind.IDENTIFIER
+        && elementType != JsKind.REFERENCE_EXPRESSION
+        && elementType != JsKind.BINARY_EXPRESSION)
+        || (parentElementType == JsKind.REFERENCE_EXPRESSION && elementType != JsKind.IDENTIFIER)
+        || parentElementType == JsKind.PROPERTY
+      -> {
+        val block = findBlockForElement(element)
+        return when {
+          trimmedTextIs(element, '\n', spacesOnly = true) && (element.prevSibling?.lastChild?.textMatches(";") == true) -> null
+          block != null && trimmedTextIs(block, '{') -> null
+          block?.kind() == JsKind.IF_STATEMENT -> element.prevSibling?.let {
+            findElementToLogForSelection(
+              element.prevSibling
+            )
+          } ?: element
+          else -> findElementToLogForBlock(block)
+        }
+      }
+
+      elementType == JsKind.IDENTIFIER && parentElementType == JsKind.VARIABLE -> return findElementToLogForBlock(
+        element
+      )
+      elementType == JsKind.REFERENCE_EXPRESSION
+        && parentElementType != JsKind.BINARY_EXPRESSION -> {
+        return findElementToLogForSelection(element.parent)
+      }
+
+      (elementType == JsKind.IDENTIFIER
+        && !element.hasParentOfType(JsKind.ARGUMENT_LIST, 2)
+        && element.hasParentOfType(JsKind.CALL_EXPRESSION, 2))
+        && element.prevSibling == null -> return null
+    }
+
+    return element
+  }
+
+  /**
+   * find the element to log inside a given block
+   */
+  private fun findElementToLogForBlock(element: PsiElement?): PsiElement? {
+    element ?: return null
+    val elementType = element.kind()
+    val parentType = element.parent.kind()
+
+    when {
+      (elementType == JsKind.IDENTIFIER && parentType != JsKind.PROPERTY)
+        || elementType == JsKind.DEFINITION_EXPRESSION
+        || (elementType == JsKind.REFERENCE_EXPRESSION && parentType == JsKind.REFERENCE_EXPRESSION)
+      -> return element
+      elementType == JsKind.VARIABLE -> return element.firstChild
+      elementType == JsKind.CALL_EXPRESSION -> return null
+    }
+
+    if (element.firstChild == null) {
+      return findElementToLogForBlock(element.nextSibling)
+    }
+
+    return findElementToLogForBlock(element.firstChild)
+  }
+
+  private fun PsiElement.hasParentOfType(type: JsKind, maxRecursion: Int, recursionLevel: Int = 0): Boolean {
+    val parentType = this.parent.kind()
+    return if (parentType == type) {
+      true
+    } else {
+      return if (parentType != JsKind.FILE && recursionLevel < maxRecursion)
+        this.parent.hasParentOfType(type, maxRecursion, recursionLevel + 1)
+      else false
+    }
+  }
+
+  private const val SHORT_COMPOSITE = 8
+}
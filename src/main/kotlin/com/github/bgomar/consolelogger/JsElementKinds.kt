@@ -0,0 +1,70 @@
+package com.github.bgomar.consolelogger
+
+import com.intellij.lang.javascript.JSElementTypes
+import com.intellij.lang.javascript.JSStubElementTypes
+import com.intellij.lang.javascript.JSTokenTypes
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.TokenType
+import com.intellij.psi.tree.TokenSet
+
+/**
+ * The element types the insertion point resolution cares about.
+ */
+enum class JsKind {
+  IDENTIFIER, DOT, WHITE_SPACE,
+  REFERENCE_EXPRESSION, BINARY_EXPRESSION, CALL_EXPRESSION, DEFINITION_EXPRESSION,
+  PROPERTY, VARIABLE, ARGUMENT_LIST, OBJECT_LITERAL,
+  EXPRESSION_STATEMENT, VAR_STATEMENT, IF_STATEMENT, BLOCK_STATEMENT, FUNCTION, FUNCTION_EXPRESSION,
+  FILE, OTHER
+}
+
+/**
+ * Classifies PSI elements by the identity of their element type, through a [TokenSet] per kind.
+ * The TypeScript variants of the PSI (e.g. the TypeScript variable) are in the set of their JavaScript counterpart.
+ */
+object JsElementKinds {
+
+  private val IDENTIFIER = TokenSet.create(JSTokenTypes.IDENTIFIER)
+  private val DOT = TokenSet.create(JSTokenTypes.DOT)
+  private val WHITE_SPACE = TokenSet.create(TokenType.WHITE_SPACE)
+  private val REFERENCE_EXPRESSION = TokenSet.create(JSElementTypes.REFERENCE_EXPRESSION)
+  private val BINARY_EXPRESSION = TokenSet.create(JSElementTypes.BINARY_EXPRESSION)
+  private val CALL_EXPRESSION = TokenSet.create(JSElementTypes.CALL_EXPRESSION)
+  private val DEFINITION_EXPRESSION = TokenSet.create(JSElementTypes.DEFINITION_EXPRESSION)
+  private val PROPERTY = TokenSet.create(JSElementTypes.PROPERTY)
+  private val VARIABLE = TokenSet.create(JSStubElementTypes.VARIABLE, JSStubElementTypes.TYPESCRIPT_VARIABLE)
+  private val ARGUMENT_LIST = TokenSet.create(JSElementTypes.ARGUMENT_LIST)
+  private val OBJECT_LITERAL = TokenSet.create(JSElementTypes.OBJECT_LITERAL_EXPRESSION)
+  private val EXPRESSION_STATEMENT = TokenSet.create(JSElementTypes.EXPRESSION_STATEMENT)
+  private val VAR_STATEMENT = TokenSet.create(JSStubElementTypes.VAR_STATEMENT)
+  private val IF_STATEMENT = TokenSet.create(JSElementTypes.IF_STATEMENT)
+  private val BLOCK_STATEMENT = TokenSet.create(JSElementTypes.BLOCK_STATEMENT)
+  private val FUNCTION = TokenSet.create(JSStubElementTypes.FUNCTION_DECLARATION, JSStubElementTypes.TYPESCRIPT_FUNCTION)
+  private val FUNCTION_EXPRESSION = TokenSet.create(JSStubElementTypes.FUNCTION_EXPRESSION, JSStubElementTypes.TYPESCRIPT_FUNCTION_EXPRESSION)
+
+  fun kindOf(element: PsiElement): JsKind {
+    if (element is PsiFile) return JsKind.FILE
+    val type = element.node?.elementType ?: return JsKind.OTHER
+    return when {
+      IDENTIFIER.contains(type) -> JsKind.IDENTIFIER
+      DOT.contains(type) -> JsKind.DOT
+      WHITE_SPACE.contains(type) -> JsKind.WHITE_SPACE
+      REFERENCE_EXPRESSION.contains(type) -> JsKind.REFERENCE_EXPRESSION
+      BINARY_EXPRESSION.contains(type) -> JsKind.BINARY_EXPRESSION
+      CALL_EXPRESSION.contains(type) -> JsKind.CALL_EXPRESSION
+      DEFINITION_EXPRESSION.contains(type) -> JsKind.DEFINITION_EXPRESSION
+      PROPERTY.contains(type) -> JsKind.PROPERTY
+      VARIABLE.contains(type) -> JsKind.VARIABLE
+      ARGUMENT_LIST.contains(type) -> JsKind.ARGUMENT_LIST
+      OBJECT_LITERAL.contains(type) -> JsKind.OBJECT_LITERAL
+      EXPRESSION_STATEMENT.contains(type) -> JsKind.EXPRESSION_STATEMENT
+      VAR_STATEMENT.contains(type) -> JsKind.VAR_STATEMENT
+      IF_STATEMENT.contains(type) -> JsKind.IF_STATEMENT
+      BLOCK_STATEMENT.contains(type) -> JsKind.BLOCK_STATEMENT
+      FUNCTION.contains(type) -> JsKind.FUNCTION
+      FUNCTION_EXPRESSION.contains(type) -> JsKind.FUNCTION_EXPRESSION
+      else -> JsKind.OTHER
+    }
+  }
+}
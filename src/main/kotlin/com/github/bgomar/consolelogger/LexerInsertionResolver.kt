@@ -0,0 +1,165 @@
+package com.github.bgomar.consolelogger
+
+import com.intellij.lang.LanguageParserDefinitions
+import com.intellij.lang.javascript.JSTokenTypes
+import com.intellij.lang.javascript.JavascriptLanguage
+import com.intellij.openapi.project.Project
+import com.intellij.psi.tree.IElementType
+
+/**
+ * Finds the insertion point of a caret with the JavaScript lexer only, on a window of text around the caret.
+ *
+ * Used while the IDE is indexing and for files above the PSI size limit: no tree is built, the identifier
+ * (or dotted reference) at the caret is logged after the end of its statement, found by balancing brackets.
+ */
+object LexerInsertionResolver {
+
+  // lines of text lexed before the caret, the lexer restarts on a line start
+  private const val LINES_BEFORE = 2
+  private const val WINDOW_AFTER = 16 * 1024
+
+  // a brace after these opens a block, after anything else it opens an object literal or a function expression body
+  private val BLOCK_OPENERS = setOf(
+    JSTokenTypes.RPAR, JSTokenTypes.EQGT, JSTokenTypes.ELSE_KEYWORD, JSTokenTypes.TRY_KEYWORD,
+    JSTokenTypes.FINALLY_KEYWORD, JSTokenTypes.DO_KEYWORD,
+  )
+  // statements whose header may be followed by their block on the next line
+  private val HEADER_KEYWORDS = setOf(
+    JSTokenTypes.IF_KEYWORD, JSTokenTypes.WHILE_KEYWORD, JSTokenTypes.FOR_KEYWORD, JSTokenTypes.SWITCH_KEYWORD,
+    JSTokenTypes.CATCH_KEYWORD, JSTokenTypes.WITH_KEYWORD, JSTokenTypes.FUNCTION_KEYWORD,
+  )
+  // tokens a statement without semicolon can end with
+  private val STATEMENT_ENDS = setOf(
+    JSTokenTypes.IDENTIFIER, JSTokenTypes.NUMERIC_LITERAL, JSTokenTypes.STRING_LITERAL, JSTokenTypes.RPAR,
+    JSTokenTypes.RBRACKET, JSTokenTypes.RBRACE, JSTokenTypes.THIS_KEYWORD, JSTokenTypes.TRUE_KEYWORD,
+    JSTokenTypes.FALSE_KEYWORD, JSTokenTypes.NULL_KEYWORD, JSTokenTypes.PLUSPLUS, JSTokenTypes.MINUSMINUS,
+  )
+
+  fun resolveInsertionTarget(project: Project, text: CharSequence, caretOffset: Int, selectionStart: Int, selectionEnd: Int, selectedText: String?): InsertionTarget? {
+    val lineStart = lineStartBefore(text, caretOffset)
+    val lineEnd = lineEndAfter(text, caretOffset)
+    // on an empty line, log right there
+    if ((lineStart until lineEnd).all { text[it] == ' ' || text[it] == '\t' || text[it] == '\r' } && selectionStart < 0) {
+      return InsertionTarget(caretOffset, "", false)
+    }
+
+    var windowStart = lineStart
+    repeat(LINES_BEFORE) { if (windowStart > 0) windowStart = lineStartBefore(text, windowStart - 1) }
+    val windowEnd = minOf(text.length, maxOf(caretOffset, selectionEnd) + WINDOW_AFTER)
+
+    val parserDefinition = LanguageParserDefinitions.INSTANCE.forLanguage(JavascriptLanguage.INSTANCE) ?: return null
+    val whitespaces = parserDefinition.whitespaceTokens
+    val comments = parserDefinition.commentTokens
+    val lexer = parserDefinition.createLexer(project)
+    lexer.start(text, windowStart, windowEnd, 0)
+
+    val anchor = if (selectionStart >= 0) selectionEnd else caretOffset
+    var variable: String? = selectedText
+    // start of the dotted reference ending at the last identifier, -1 when there is none
+    var referenceStart = -1
+    var previous: IElementType? = null
+    // whether the statement assigns at the level of the caret, and whether it is the header of a block statement
+    var assigned = false
+    var header = false
+    // parentheses open at the current token, and at the keyword of the header
+    var open = 0
+    var headerOpen = 0
+    var previousEnd = anchor
+
+    // the reference at the caret, the lexer stops on the first token after the caret
+    while (lexer.tokenType != null && lexer.tokenStart <= anchor) {
+      val type = lexer.tokenType
+      if (type !in whitespaces && type !in comments) {
+        when (type) {
+          JSTokenTypes.IDENTIFIER -> {
+            if (previous != JSTokenTypes.DOT || referenceStart < 0) referenceStart = lexer.tokenStart
+            if (variable == null && lexer.tokenEnd >= anchor) variable = text.subSequence(referenceStart, lexer.tokenEnd).toString()
+          }
+          JSTokenTypes.DOT -> if (previous != JSTokenTypes.IDENTIFIER) referenceStart = -1
+          else -> referenceStart = -1
+        }
+        when (type) {
+          JSTokenTypes.SEMICOLON, JSTokenTypes.LBRACE, JSTokenTypes.RBRACE -> {
+            assigned = false
+            header = false
+          }
+          // in arguments an arrow function body is a block of its parameters
+          JSTokenTypes.LPAR, JSTokenTypes.LBRACKET -> assigned = false
+          JSTokenTypes.EQ -> assigned = true
+          in HEADER_KEYWORDS -> {
+            header = true
+            headerOpen = open
+          }
+        }
+        if (type == JSTokenTypes.LPAR) open++ else if (type == JSTokenTypes.RPAR) open--
+        previous = type
+        previousEnd = lexer.tokenEnd
+      }
+      lexer.advance()
+    }
+    if (variable == null) return null
+
+    // the end of the statement holding it
+    var depth = 0
+    while (lexer.tokenType != null) {
+      val type = lexer.tokenType
+      if (type in whitespaces || type in comments) {
+        if (depth == 0 && previous in STATEMENT_ENDS && text.subSequence(lexer.tokenStart, lexer.tokenEnd).contains('\n')) {
+          // without semicolons a line break ends the statement, unless it splits a header from its body
+          if (!headerClosed(header, previous, open, headerOpen)) return InsertionTarget(previousEnd, variable, true)
+          header = false
+        }
+        lexer.advance()
+        continue
+      }
+      // the body of the header goes on on its line
+      if (headerClosed(header, previous, open, headerOpen)) header = false
+      when (type) {
+        JSTokenTypes.LPAR, JSTokenTypes.LBRACKET -> depth++
+        JSTokenTypes.RPAR, JSTokenTypes.RBRACKET -> depth--
+        JSTokenTypes.EQ -> if (depth == 0) assigned = true
+        // the body of a control statement or a function declaration, an object literal or a function expression otherwise
+        JSTokenTypes.LBRACE -> if (depth == 0 && !assigned && previous in BLOCK_OPENERS) return InsertionTarget(lexer.tokenEnd, variable, true) else depth++
+        JSTokenTypes.RBRACE -> if (depth == 0) return endOfBlock(text, lexer.tokenStart, previousEnd, variable) else depth--
+        JSTokenTypes.SEMICOLON -> if (depth == 0) return InsertionTarget(lexer.tokenEnd, variable, true)
+      }
+      if (depth < 0) {
+        // the reference was an argument or an index, the statement goes on
+        depth = 0
+      }
+      if (type == JSTokenTypes.LPAR) open++ else if (type == JSTokenTypes.RPAR) open--
+      previous = type
+      previousEnd = lexer.tokenEnd
+      lexer.advance()
+    }
+    return InsertionTarget(lineEnd, variable, true)
+  }
+
+  // whether the last token closed the parentheses of the header
+  private fun headerClosed(header: Boolean, previous: IElementType?, open: Int, headerOpen: Int): Boolean =
+    header && previous == JSTokenTypes.RPAR && open == headerOpen
+
+  /**
+   * The target before the brace closing the block of the statement: on a new line after the line before
+   * the brace, or right before the brace when the statement shares its line.
+   */
+  private fun endOfBlock(text: CharSequence, braceOffset: Int, statementEnd: Int, variable: String): InsertionTarget {
+    val lineBefore = lineStartBefore(text, braceOffset) - 1
+    if (lineBefore >= statementEnd) {
+      return InsertionTarget(lineBefore, variable, true)
+    }
+    return InsertionTarget(statementEnd, variable, false, "; ")
+  }
+
+  private fun lineStartBefore(text: CharSequence, offset: Int): Int {
+    var start = minOf(offset, text.length)
+    while (start > 0 && text[start - 1] != '\n') start--
+    return start
+  }
+
+  private fun lineEndAfter(text: CharSequence, offset: Int): Int {
+    var end = maxOf(offset, 0)
+    while (end < text.length && text[end] != '\n') end++
+    return end
+  }
+}
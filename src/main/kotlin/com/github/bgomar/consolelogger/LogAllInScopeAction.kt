@@ -0,0 +1,94 @@
+package com.github.bgomar.consolelogger
+
+import com.github.bgomar.bgconsolelogger.tools.ConsoleLoggerSettings
+import com.intellij.lang.javascript.JavascriptLanguage
+import com.intellij.lang.javascript.psi.JSBlockStatement
+import com.intellij.lang.javascript.psi.JSFunction
+import com.intellij.lang.javascript.psi.JSIfStatement
+import com.intellij.lang.javascript.psi.JSLoopStatement
+import com.intellij.lang.javascript.psi.JSVarStatement
+import com.intellij.lang.javascript.psi.JSVariable
+import com.intellij.lang.javascript.psi.ecmal4.JSClass
+import com.intellij.openapi.actionSystem.ActionUpdateThread
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.CommonDataKeys
+import com.intellij.psi.PsiElement
+import com.intellij.psi.util.PsiTreeUtil
+
+/**
+ * Logs every parameter and local variable of the function around the caret, each after its declaration,
+ * with the template chosen in [ConsoleLoggerSettings.Snapshot.scopeLogPattern].
+ */
+class LogAllInScopeAction : AnAction() {
+
+  // the check only reads the PSI, which is allowed in a background update
+  override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.BGT
+
+  override fun update(e: AnActionEvent) {
+    val editor = e.getData(CommonDataKeys.EDITOR)
+    val psiFile = e.getData(CommonDataKeys.PSI_FILE)
+    // JavaScript or TypeScript files, and the script fragments of the others
+    e.presentation.isEnabled = editor != null && psiFile != null && (psiFile.language.isKindOf(JavascriptLanguage.INSTANCE)
+      || psiFile.findElementAt(editor.caretModel.offset)?.language?.isKindOf(JavascriptLanguage.INSTANCE) == true)
+  }
+
+  override fun actionPerformed(e: AnActionEvent) {
+    val editor = e.getData(CommonDataKeys.EDITOR) ?: return
+    val file = e.getData(CommonDataKeys.VIRTUAL_FILE)
+
+    val psiFile = LogInsertion.resolvePsiFile(editor)
+    val function = PsiTreeUtil.getParentOfType(psiFile.findElementAt(editor.caretModel.offset), JSFunction::class.java) ?: return
+    // an expression body has no room for logs
+    val body = PsiTreeUtil.getChildOfType(function, JSBlockStatement::class.java) ?: return
+
+    val variables = mutableListOf<JSVariable>()
+    collectVariables(function, variables)
+
+    val targets = variables.mapNotNull { variable ->
+      val name = variable.name ?: return@mapNotNull null
+      val offset = if (variable.textOffset < body.textOffset) {
+        // parameters are logged at the top of the body
+        body.textOffset + 1
+      } else {
+        val statement = PsiTreeUtil.getParentOfType(variable, JSVarStatement::class.java, true, JSBlockStatement::class.java) ?: variable
+        when (val parent = statement.parent) {
+          // declared in the header of the loop or as its brace-less body: logged at the top of a braced body, if any
+          is JSLoopStatement -> {
+            val loopBody = parent.body as? JSBlockStatement
+            if (loopBody == null) return@mapNotNull null
+            loopBody.textOffset + 1
+          }
+          // the brace-less branch of an if has no room for a log either
+          is JSIfStatement -> return@mapNotNull null
+          else -> statement.textRange.endOffset
+        }
+      }
+      InsertionTarget(offset, name, true)
+    }
+
+    LogInsertion.insertLogs(
+      editor,
+      ConsoleLoggerSettings.getCompiledPattern(ConsoleLoggerSettings.snapshot().scopeLogPattern()),
+      file?.name ?: "filename",
+      file?.path ?: "file_path",
+      targets,
+      "Log All in Scope"
+    )
+  }
+
+  /**
+   * Collects the variables declared in the scope of the function in a single walk,
+   * in document order. Nested functions and classes have their own scope and are skipped.
+   */
+  private fun collectVariables(element: PsiElement, into: MutableList<JSVariable>) {
+    var child = element.firstChild
+    while (child != null) {
+      if (child !is JSFunction && child !is JSClass) {
+        if (child is JSVariable) into.add(child)
+        collectVariables(child, into)
+      }
+      child = child.nextSibling
+    }
+  }
+}
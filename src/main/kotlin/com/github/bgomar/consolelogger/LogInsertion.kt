@@ -0,0 +1,135 @@
+package com.github.bgomar.consolelogger
+
+import com.github.bgomar.bgconsolelogger.tools.LogTemplate
+import com.intellij.lang.javascript.JavascriptLanguage
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.editor.CaretState
+import com.intellij.openapi.editor.Editor
+import com.intellij.openapi.project.ProjectManager
+import com.intellij.openapi.util.Key
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiFileFactory
+import com.intellij.psi.codeStyle.CodeStyleManager
+import java.lang.ref.SoftReference
+
+/**
+ * Where a log is inserted and the variable it logs.
+ * With [newLine] the log goes on a new line after the line holding [offset], otherwise right at [offset],
+ * after the [separator] when the log shares the line with a statement.
+ */
+data class InsertionTarget(val offset: Int, val variable: String, val newLine: Boolean, val separator: String = "")
+
+/**
+ * Inserts several logs in one undoable command with a single document commit,
+ * on the PSI the insertion points are resolved against.
+ */
+object LogInsertion {
+
+  private val LOG = Logger.getInstance(LogInsertion::class.java)
+  // softly reachable, so a document that once needed the fallback does not keep its PSI alive
+  private val FALLBACK_PSI = Key.create<Pair<Long, SoftReference<PsiFile>>>("com.github.bgomar.consolelogger.FallbackPsi")
+
+  /**
+   * The committed PSI of the document when it is a JavaScript-family file, so nothing is parsed
+   * on the keystroke path. Other files (e.g. Vue or HTML) are parsed as JavaScript once per
+   * modification stamp of the document.
+   *
+   * Off the EDT the caller is responsible for committing the document.
+   */
+  fun resolvePsiFile(editor: Editor): PsiFile {
+    val document = editor.document
+    val project = editor.project
+    if (project != null) {
+      val documentManager = PsiDocumentManager.getInstance(project)
+      if (ApplicationManager.getApplication().isDispatchThread) {
+        // a no-op when the document is already committed, an incremental reparse otherwise
+        documentManager.commitDocument(document)
+      }
+      val psiFile = documentManager.getPsiFile(document)
+      if (psiFile != null && psiFile.language.isKindOf(JavascriptLanguage.INSTANCE)) {
+        LOG.debug("Using the committed PSI")
+        return psiFile
+      }
+    }
+
+    val cached = document.getUserData(FALLBACK_PSI)
+    val cachedPsi = if (cached != null && cached.first == document.modificationStamp) cached.second.get() else null
+    if (cachedPsi != null) {
+      LOG.debug("Using the cached parse")
+      return cachedPsi
+    }
+    LOG.debug("Parsing the document")
+    // an editor outside of any project, e.g. a diff, parses in the default project
+    val psiFile = PsiFileFactory.getInstance(project ?: ProjectManager.getInstance().defaultProject)
+      .createFileFromText("dummy.ts", JavascriptLanguage.INSTANCE, document.immutableCharSequence)
+    document.putUserData(FALLBACK_PSI, document.modificationStamp to SoftReference(psiFile))
+    return psiFile
+  }
+
+  /**
+   * Renders a log per target and inserts them all, then puts a caret on every filled in $$.
+   * Targets sharing a line keep their order.
+   */
+  fun insertLogs(editor: Editor, template: LogTemplate, fileName: String, filePath: String, targets: List<InsertionTarget>, commandName: String) {
+    val project = editor.project ?: return
+    if (targets.isEmpty()) return
+    val document = editor.document
+
+    // resolve the insertion offsets and the line numbers top-down, the line numbers count the logs inserted above
+    val sorted = targets.map { it.copy(variable = it.variable.replace("<CR>", "").trim()) }
+      .sortedBy { it.offset }
+    val offsets = IntArray(sorted.size)
+    val renders = ArrayList<LogTemplate.Rendered>(sorted.size)
+    var insertedLines = 0
+    for ((i, target) in sorted.withIndex()) {
+      val line = document.getLineNumber(target.offset)
+      offsets[i] = if (target.newLine) document.getLineEndOffset(line) else target.offset
+      val rendered = template.renderWithOffsets(target.variable, fileName, filePath, line + insertedLines + if (target.newLine) 2 else 1)
+      renders.add(rendered)
+      insertedLines += rendered.text.count { it == '\n' } + if (target.newLine) 1 else 0
+    }
+
+    val carets = mutableListOf<CaretState>()
+    WriteCommandAction.writeCommandAction(project).withName(commandName).run<RuntimeException> {
+      // bottom-up, so the offsets above stay valid
+      for (i in sorted.indices.reversed()) {
+        val prefix = if (sorted[i].newLine) "\n" else sorted[i].separator
+        document.insertString(offsets[i], prefix + renders[i].text)
+      }
+      // markers follow the logs through the indentation below
+      var shift = 0
+      val markers = sorted.indices.map { i ->
+        val prefix = if (sorted[i].newLine) 1 else sorted[i].separator.length
+        val start = offsets[i] + shift + prefix
+        shift += prefix + renders[i].text.length
+        document.createRangeMarker(start, start + renders[i].text.length)
+      }
+
+      val documentManager = PsiDocumentManager.getInstance(project)
+      documentManager.commitDocument(document)
+      val psiFile = documentManager.getPsiFile(document)
+      if (psiFile != null) {
+        val codeStyleManager = CodeStyleManager.getInstance(project)
+        for (marker in markers.reversed()) {
+          codeStyleManager.adjustLineIndent(psiFile, marker.textRange)
+        }
+      }
+
+      for ((i, marker) in markers.withIndex()) {
+        for (variableOffset in renders[i].variableOffsets) {
+          val start = editor.offsetToLogicalPosition(marker.startOffset + variableOffset)
+          val end = editor.offsetToLogicalPosition(marker.startOffset + variableOffset + sorted[i].variable.length)
+          carets.add(CaretState(start, start, end))
+        }
+        marker.dispose()
+      }
+    }
+
+    if (carets.isNotEmpty()) {
+      editor.caretModel.caretsAndSelections = carets
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.github.bgomar.consolelogger
+
+import com.github.bgomar.bgconsolelogger.tools.LogTemplate
+import com.intellij.openapi.editor.Document
+
+/**
+ * Locates the `Line: N` fragments of the generated logs without copying the document text.
+ *
+ * The logs are found by [LogRemovalEngine] with the compiled templates of the settings,
+ * the fragment is the `{LN}` of the template the log was generated from.
+ */
+object LogLineNumbers {
+
+  const val LINE_PREFIX = "Line: "
+
+  /**
+   * A `Line: N` fragment whose number doesn't match the line it is on.
+   * [start] and [end] delimit the digits, [number] is the correct value.
+   */
+  class Correction(val start: Int, val end: Int, val number: Int)
+
+  /**
+   * Calls [consumer] with the range of each `Line: N` fragment of the generated logs on the lines
+   * starting in [startOffset, endOffset), in ascending order. [startOffset] must be a line start.
+   */
+  fun forEachFragment(text: CharSequence, startOffset: Int, endOffset: Int, consumer: (start: Int, end: Int) -> Unit) {
+    val engine = LogRemovalEngine.fromSettings()
+    for (site in engine.findLogSites(text, startOffset, endOffset)) {
+      val template = engine.template(site.template)
+      if (!template.hasLineNumber()) continue
+
+      val range = site.range
+      val lineEnd = if (range.endOffset > range.startOffset && text[range.endOffset - 1] == '\n') range.endOffset - 1 else range.endOffset
+      val matcher = template.pattern.matcher(text).region(range.startOffset, lineEnd)
+      if (matcher.find() && matcher.start(LogTemplate.LINE_NUMBER_GROUP) >= 0) {
+        consumer(matcher.start(LogTemplate.LINE_NUMBER_GROUP), matcher.end(LogTemplate.LINE_NUMBER_GROUP))
+      }
+    }
+  }
+
+  /**
+   * Returns the fragments of the document whose number is not the 1-based index of their line,
+   * in ascending order.
+   */
+  fun findCorrections(document: Document): List<Correction> = findCorrections(document.immutableCharSequence)
+
+  /**
+   * Returns the fragments of the text whose number is not the 1-based index of their line,
+   * in ascending order. The text is read in a single pass.
+   */
+  fun findCorrections(text: CharSequence): List<Correction> {
+    val corrections = mutableListOf<Correction>()
+    var line = 0
+    var counted = 0
+    forEachFragment(text, 0, text.length) { start, end ->
+      // the fragments are ascending, count the line breaks since the previous one
+      while (counted < start) {
+        if (text[counted] == '\n') line++
+        counted++
+      }
+      val digitsStart = start + LINE_PREFIX.length
+      if (parseNumber(text, digitsStart, end) != line + 1) {
+        corrections.add(Correction(digitsStart, end, line + 1))
+      }
+    }
+    return corrections
+  }
+
+  /**
+   * Rewrites the given fragments. Must be called inside a write action.
+   */
+  fun applyCorrections(document: Document, corrections: List<Correction>) {
+    // backwards, so the offsets of the remaining corrections stay valid
+    for (correction in corrections.asReversed()) {
+      document.replaceString(correction.start, correction.end, correction.number.toString())
+    }
+  }
+
+  /**
+   * Parses the digits in [start, end) without allocating, -1 when they don't form a number.
+   */
+  fun parseNumber(text: CharSequence, start: Int, end: Int): Int {
+    if (start >= end || end - start > 9) return -1
+    var number = 0
+    for (i in start until end) {
+      val c = text[i]
+      if (c !in '0'..'9') return -1
+      number = number * 10 + (c - '0')
+    }
+    return number
+  }
+}
@@ -0,0 +1,156 @@
+package com.github.bgomar.consolelogger
+
+import com.github.bgomar.bgconsolelogger.tools.ConsoleLoggerSettings
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.command.CommandProcessor
+import com.intellij.openapi.command.undo.UndoManager
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.editor.RangeMarker
+import com.intellij.openapi.editor.event.DocumentEvent
+import com.intellij.openapi.editor.event.DocumentListener
+import com.intellij.openapi.editor.event.EditorFactoryEvent
+import com.intellij.openapi.editor.event.EditorFactoryListener
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Disposer
+import com.intellij.openapi.util.Key
+import com.intellij.util.Alarm
+
+/**
+ * Keeps the `Line: N` fragments of the generated logs of a document up to date while it is edited.
+ *
+ * Every log is tracked with a [RangeMarker] remembering the line it was on. After the edits settle,
+ * only the logs that moved to another line get their number rewritten, in an undo-transparent action
+ * so that undoing the edit restores the previous numbers as well.
+ */
+class LogLineTracker private constructor(
+  private val project: Project,
+  private val document: Document,
+) : DocumentListener, Disposable {
+
+  private class TrackedLog(val marker: RangeMarker, var line: Int)
+
+  private val logs = mutableListOf<TrackedLog>()
+  private val alarm = Alarm(Alarm.ThreadToUse.SWING_THREAD, this)
+  private var editors = 0
+
+  init {
+    track(0, document.lineCount - 1)
+    document.addDocumentListener(this, this)
+  }
+
+  private fun track(fromLine: Int, toLine: Int) {
+    val lastLine = minOf(toLine, document.lineCount - 1)
+    if (fromLine > lastLine) return
+    val text = document.immutableCharSequence
+    LogLineNumbers.forEachFragment(text, document.getLineStartOffset(fromLine), document.getLineEndOffset(lastLine)) { start, end ->
+      val line = document.getLineNumber(start)
+      val lineStart = document.getLineStartOffset(line)
+      val lineEnd = document.getLineEndOffset(line)
+      val tracked = logs.any { it.marker.isValid && it.marker.startOffset <= lineEnd && it.marker.endOffset >= lineStart }
+      if (!tracked) {
+        val marker = document.createRangeMarker(start, end)
+        marker.isGreedyToRight = true
+        logs.add(TrackedLog(marker, line))
+      }
+    }
+  }
+
+  override fun documentChanged(event: DocumentEvent) {
+    if (document.isInBulkUpdate) {
+      // markers are unreliable across bulk updates, start over afterwards
+      alarm.cancelAllRequests()
+      alarm.addRequest(::retrack, DELAY_MS)
+      return
+    }
+    logs.removeIf { log -> (!log.marker.isValid).also { if (it) log.marker.dispose() } }
+    track(document.getLineNumber(event.offset), document.getLineNumber(event.offset + event.newLength))
+
+    if (UndoManager.getInstance(project).isUndoOrRedoInProgress) {
+      // the undone or redone edit brings back its own numbers, rewriting them would change the document
+      // behind the undo stack; checked here because the update runs long after the undo is over
+      alarm.cancelAllRequests()
+      logs.forEach { if (it.marker.isValid) it.line = document.getLineNumber(it.marker.startOffset) }
+      return
+    }
+
+    if (event.oldFragment.contains('\n') || event.newFragment.contains('\n')) {
+      alarm.cancelAllRequests()
+      alarm.addRequest(::update, DELAY_MS)
+    }
+  }
+
+  /**
+   * Rewrites the number of the logs that moved to another line.
+   */
+  private fun update() {
+    if (project.isDisposed || !document.isWritable || !ConsoleLoggerSettings.snapshot().trackLineNumbers()) return
+
+    val text = document.immutableCharSequence
+    val moved = logs.filter { log ->
+      log.marker.isValid && document.getLineNumber(log.marker.startOffset) != log.line
+    }
+    if (moved.isEmpty()) return
+
+    CommandProcessor.getInstance().runUndoTransparentAction {
+      WriteAction.run<RuntimeException> {
+        for (log in moved.sortedByDescending { it.marker.startOffset }) {
+          val line = document.getLineNumber(log.marker.startOffset)
+          val digitsStart = log.marker.startOffset + LogLineNumbers.LINE_PREFIX.length
+          if (LogLineNumbers.parseNumber(text, digitsStart, log.marker.endOffset) < 0) {
+            // the fragment was edited by hand, stop tracking it
+            logs.remove(log)
+            log.marker.dispose()
+            continue
+          }
+          document.replaceString(digitsStart, log.marker.endOffset, (line + 1).toString())
+          log.line = line
+        }
+      }
+    }
+  }
+
+  private fun retrack() {
+    logs.forEach { it.marker.dispose() }
+    logs.clear()
+    track(0, document.lineCount - 1)
+  }
+
+  override fun dispose() {
+    logs.forEach { it.marker.dispose() }
+    logs.clear()
+  }
+
+  /**
+   * Attaches a tracker to the documents of JavaScript-family files while they are open in an editor.
+   */
+  class EditorListener : EditorFactoryListener {
+    override fun editorCreated(event: EditorFactoryEvent) {
+      val editor = event.editor
+      val project = editor.project ?: return
+      val document = editor.document
+      val file = FileDocumentManager.getInstance().getFile(document) ?: return
+      if (file.extension?.lowercase() !in ConsoleLoggerLogIndex.EXTENSIONS) return
+
+      val tracker = document.getUserData(KEY) ?: LogLineTracker(project, document).also {
+        document.putUserData(KEY, it)
+      }
+      tracker.editors++
+    }
+
+    override fun editorReleased(event: EditorFactoryEvent) {
+      val document = event.editor.document
+      val tracker = document.getUserData(KEY) ?: return
+      if (--tracker.editors == 0) {
+        document.putUserData(KEY, null)
+        Disposer.dispose(tracker)
+      }
+    }
+  }
+
+  companion object {
+    private val KEY = Key.create<LogLineTracker>("com.github.bgomar.consolelogger.LogLineTracker")
+    private const val DELAY_MS = 300
+  }
+}
@@ -0,0 +1,148 @@
+package com.github.bgomar.consolelogger
+
+import com.github.bgomar.bgconsolelogger.tools.ConsoleLoggerSettings
+import com.github.bgomar.bgconsolelogger.tools.LogTemplate
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.util.TextRange
+import com.intellij.util.DocumentUtil
+
+/**
+ * Finds the lines generated by ConsoleLogger for all templates at once.
+ *
+ * The fixed head of every template (the text before its first placeholder, e.g. `console.log("%c 1 --> `)
+ * feeds an [AhoCorasick] prefilter, so the text is scanned a single time and only the lines holding
+ * a head are verified against the full template, in linear time with [LogTemplate.matchesAt].
+ */
+class LogRemovalEngine private constructor(private val templates: List<LogTemplate>) {
+
+  /**
+   * A generated log: the index of its template in the settings and the range of its line, newline included.
+   */
+  data class LogSite(val template: Int, val range: TextRange)
+
+  private val heads: AhoCorasick
+  // compiled template for every head, indexed like the keywords of [heads]
+  private val headTemplates: List<LogTemplate>
+  private val headTemplateIndexes: IntArray
+  // templates starting with a placeholder have no head and are verified on every line
+  private val headlessTemplates: List<LogTemplate>
+  private val headlessTemplateIndexes: IntArray
+
+  init {
+    // identical templates (e.g. the active set and the stored preset it was loaded from) are matched once,
+    // their logs are reported under the lowest template index
+    val distinct = templates.indices
+      .filter { templates[it].source.isNotBlank() }
+      .distinctBy { templates[it].source }
+    val (withHead, headless) = distinct.partition { templates[it].head.isNotEmpty() }
+    heads = AhoCorasick(withHead.map { templates[it].head })
+    headTemplates = withHead.map { templates[it] }
+    headTemplateIndexes = withHead.toIntArray()
+    headlessTemplates = headless.map { templates[it] }
+    headlessTemplateIndexes = headless.toIntArray()
+  }
+
+  /**
+   * The compiled template at the given index of the settings, as reported in [LogSite.template].
+   */
+  fun template(index: Int): LogTemplate = templates[index]
+
+  /**
+   * Returns the ranges of the lines holding a generated log, newline included, in ascending order.
+   */
+  fun findLogLines(text: CharSequence): List<TextRange> = findLogSites(text).map { it.range }
+
+  /**
+   * Returns the generated logs of the text in ascending order, in a single pass over the text.
+   * Only the lines starting in [startOffset, endOffset) are scanned, [startOffset] must be a line start.
+   */
+  fun findLogSites(text: CharSequence, startOffset: Int = 0, endOffset: Int = text.length): List<LogSite> {
+    val sites = mutableListOf<LogSite>()
+    var lineStart = startOffset
+    var lineEnd = -1 // resolved on the first candidate of the line
+    var matched = -1
+    var state = 0
+
+    var offset = startOffset
+    while (offset < text.length && lineStart < endOffset) {
+      val c = text[offset]
+      if (c == '\n') {
+        if (matched < 0) matched = matchHeadless(text, lineStart, offset)
+        if (matched >= 0) sites.add(LogSite(matched, TextRange(lineStart, offset + 1)))
+        lineStart = offset + 1
+        lineEnd = -1
+        matched = -1
+        state = 0
+      } else if (matched < 0) {
+        state = heads.step(state, c)
+        for (keyword in heads.matchesAt(state)) {
+          val start = offset - heads.keywordLength(keyword) + 1
+          if (lineEnd < 0) lineEnd = findLineEnd(text, offset)
+          if (headTemplates[keyword].matchesAt(text, start, lineEnd)) {
+            matched = headTemplateIndexes[keyword]
+            break
+          }
+        }
+      }
+      offset++
+    }
+    if (lineStart < minOf(text.length, endOffset)) {
+      if (matched < 0) matched = matchHeadless(text, lineStart, text.length)
+      if (matched >= 0) sites.add(LogSite(matched, TextRange(lineStart, text.length)))
+    }
+    return sites
+  }
+
+  private fun matchHeadless(text: CharSequence, lineStart: Int, lineEnd: Int): Int {
+    for (i in headlessTemplates.indices) {
+      if (headlessTemplates[i].find(text, lineStart, lineEnd) >= 0) return headlessTemplateIndexes[i]
+    }
+    return -1
+  }
+
+  /**
+   * Deletes every generated log line of the document in one bulk update.
+   * Must be called inside a write command.
+   * @return the number of removed lines
+   */
+  fun removeLogs(document: Document): Int {
+    val lines = findLogLines(document.immutableCharSequence)
+    deleteLines(document, lines)
+    return lines.size
+  }
+
+  /**
+   * Deletes the given line ranges, as returned by [findLogLines], in one bulk update.
+   * Must be called inside a write command.
+   */
+  fun deleteLines(document: Document, lines: List<TextRange>) {
+    if (lines.isEmpty()) return
+
+    DocumentUtil.executeInBulk(document, true) {
+      // delete backwards so the offsets of the remaining ranges stay valid
+      for (line in lines.asReversed()) {
+        document.deleteString(line.startOffset, line.endOffset)
+      }
+    }
+  }
+
+  companion object {
+    @Volatile
+    private var cached: LogRemovalEngine? = null
+
+    /**
+     * The engine for the compiled templates of [ConsoleLoggerSettings], rebuilt only after a template changes.
+     */
+    fun fromSettings(): LogRemovalEngine {
+      val templates = ConsoleLoggerSettings.getCompiledPatterns()
+      cached?.takeIf { it.templates === templates }?.let { return it }
+      return LogRemovalEngine(templates).also { cached = it }
+    }
+
+    private fun findLineEnd(text: CharSequence, from: Int): Int {
+      var offset = from
+      while (offset < text.length && text[offset] != '\n') offset++
+      return offset
+    }
+  }
+}
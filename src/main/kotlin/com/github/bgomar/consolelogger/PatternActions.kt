@@ -0,0 +1,124 @@
+package com.github.bgomar.consolelogger
+
+import com.github.bgomar.bgconsolelogger.tools.ConsoleLoggerSettings
+import com.intellij.openapi.actionSystem.ActionManager
+import com.intellij.openapi.actionSystem.ActionUpdateThread
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.Anchor
+import com.intellij.openapi.actionSystem.Constraints
+import com.intellij.openapi.actionSystem.DefaultActionGroup
+import com.intellij.openapi.actionSystem.KeyboardShortcut
+import com.intellij.openapi.actionSystem.ToggleAction
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.keymap.KeymapManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.startup.ProjectActivity
+import java.awt.event.InputEvent
+import java.awt.event.KeyEvent
+import javax.swing.KeyStroke
+
+/**
+ * Keeps the actions of the ConsoleLogger menu in line with the presets: one action per template of the
+ * active preset, and one action per preset to make it the active one. They are registered and unregistered
+ * at runtime through the [ActionManager]; the first nine templates get `ctrl alt 1` to `ctrl alt 9`
+ * in the default keymaps, the keymaps derived from them inherit the shortcuts.
+ */
+object PatternActions {
+
+  private const val GROUP_ID = "com.github.bgomar.consolelogger.ConsoleLoggerActionsGroup"
+  private const val PRESET_ID_PREFIX = "com.github.bgomar.consolelogger.preset."
+  // the templates are listed before the other actions of the group
+  private const val REMOVE_ID = "com.github.bgomar.consolelogger.ConsoleLoggerRemove"
+  private const val SHORTCUT_TEMPLATES = 9
+  private val SHORTCUT_KEYMAPS = listOf(KeymapManager.DEFAULT_IDEA_KEYMAP, KeymapManager.MAC_OS_X_KEYMAP)
+
+  // ids of the actions registered here, only touched on the EDT
+  private val registered = mutableSetOf<String>()
+
+  fun sync() {
+    val actionManager = ActionManager.getInstance()
+    val group = actionManager.getAction(GROUP_ID) as? DefaultActionGroup ?: return
+    val registry = ConsoleLoggerSettings.getRegistry()
+
+    val wanted = LinkedHashMap<String, Pair<() -> AnAction, Constraints>>()
+    val beforeRemove = Constraints(Anchor.BEFORE, REMOVE_ID)
+    for (index in registry.active.patterns.indices) {
+      wanted[ConsoleLoggerAction.ID_PREFIX + (index + 1)] = Pair({ ConsoleLoggerAction(index) }, beforeRemove)
+    }
+    for (preset in registry.presets) {
+      wanted[PRESET_ID_PREFIX + preset.id] = Pair({ SwitchPresetAction(preset.id) }, Constraints.LAST)
+    }
+
+    registered.filter { it !in wanted }.forEach { id ->
+      actionManager.getAction(id)?.let { group.remove(it, actionManager) }
+      removeShortcut(id)
+      actionManager.unregisterAction(id)
+      registered.remove(id)
+    }
+    for ((id, entry) in wanted) {
+      if (id in registered || actionManager.getAction(id) != null) continue
+      val (create, constraints) = entry
+      val action = create()
+      actionManager.registerAction(id, action)
+      group.add(action, constraints, actionManager)
+      addShortcut(id)
+      registered.add(id)
+    }
+  }
+
+  private fun shortcutOf(id: String): KeyboardShortcut? {
+    val number = id.removePrefix(ConsoleLoggerAction.ID_PREFIX).toIntOrNull()
+    if (!id.startsWith(ConsoleLoggerAction.ID_PREFIX) || number == null || number > SHORTCUT_TEMPLATES) return null
+    return KeyboardShortcut(KeyStroke.getKeyStroke(KeyEvent.VK_0 + number, InputEvent.CTRL_DOWN_MASK or InputEvent.ALT_DOWN_MASK), null)
+  }
+
+  // the bundled keymaps are never saved, the shortcut is added again on every start
+  private fun addShortcut(id: String) {
+    val shortcut = shortcutOf(id) ?: return
+    for (name in SHORTCUT_KEYMAPS) {
+      val keymap = KeymapManager.getInstance().getKeymap(name) ?: continue
+      if (keymap.getShortcuts(id).isEmpty()) keymap.addShortcut(id, shortcut)
+    }
+  }
+
+  private fun removeShortcut(id: String) {
+    val shortcut = shortcutOf(id) ?: return
+    for (name in SHORTCUT_KEYMAPS) {
+      KeymapManager.getInstance().getKeymap(name)?.removeShortcut(id, shortcut)
+    }
+  }
+
+  private fun syncLater() = ApplicationManager.getApplication().invokeLater(::sync)
+
+  /**
+   * Makes a preset the active one, its name is looked up on every update so renames show at once.
+   */
+  private class SwitchPresetAction(private val presetId: String) : ToggleAction() {
+
+    override fun getActionUpdateThread(): ActionUpdateThread = ActionUpdateThread.BGT
+
+    override fun update(e: AnActionEvent) {
+      super.update(e)
+      val preset = ConsoleLoggerSettings.getRegistry().getPreset(presetId)
+      e.presentation.isEnabledAndVisible = preset != null
+      e.presentation.text = "Preset: ${preset?.name ?: presetId}"
+    }
+
+    override fun isSelected(e: AnActionEvent): Boolean = ConsoleLoggerSettings.getRegistry().active.id == presetId
+
+    override fun setSelected(e: AnActionEvent, state: Boolean) {
+      if (state) ConsoleLoggerSettings.switchPreset(presetId)
+    }
+  }
+
+  class Listener : ConsoleLoggerSettings.PatternsListener {
+    override fun patternsChanged() = syncLater()
+
+    override fun presetSwitched() = syncLater()
+  }
+
+  class Startup : ProjectActivity {
+    override suspend fun execute(project: Project) = syncLater()
+  }
+}
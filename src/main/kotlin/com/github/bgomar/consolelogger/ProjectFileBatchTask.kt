@@ -0,0 +1,156 @@
+package com.github.bgomar.consolelogger
+
+import com.intellij.concurrency.JobLauncher
+import com.intellij.notification.NotificationType
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.Task
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.roots.ProjectFileIndex
+import com.intellij.openapi.util.io.FileUtilRt
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.search.GlobalSearchScope
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Edits the generated logs of every file of the project in the background.
+ *
+ * The candidate files come from [ConsoleLoggerLogIndex], or from the project content while indexing.
+ * They are scanned in parallel under non-blocking read actions, then the edits of each file
+ * are applied in a single write command. Files without edits are left untouched and the task
+ * can be cancelled between files.
+ *
+ * @param T a single edit of a file
+ */
+abstract class ProjectFileBatchTask<T>(
+  project: Project,
+  title: String,
+  private val commandName: String,
+) : Task.Backgroundable(project, title, true) {
+
+  private class FileEdits<T>(val file: VirtualFile, val stamp: Long, val edits: List<T>)
+
+  private val scanned = ConcurrentLinkedQueue<FileEdits<T>>()
+  private val applied = mutableListOf<Pair<VirtualFile, Int>>()
+  private var cancelled = false
+
+  /**
+   * Finds the edits of a file, in ascending order of their offsets. Called concurrently under a read action.
+   */
+  protected abstract fun findEdits(text: CharSequence): List<T>
+
+  /**
+   * Applies the edits found in the current text of the document. Called inside a write command.
+   */
+  protected abstract fun applyEdits(document: Document, edits: List<T>)
+
+  /**
+   * Title of the notification summing up the edits, per file, once the task ends.
+   */
+  protected abstract fun summaryTitle(total: Int, files: Int): String
+
+  override fun run(indicator: ProgressIndicator) {
+    indicator.isIndeterminate = true
+    indicator.text = "Collecting project files"
+    val files = ReadAction.nonBlocking<List<VirtualFile>> { collectFiles() }
+      .expireWith(project)
+      .executeSynchronously()
+
+    indicator.isIndeterminate = false
+    indicator.text = "Searching ConsoleLogger's logs"
+    val done = AtomicInteger()
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator) { file ->
+      ReadAction.nonBlocking<FileEdits<T>?> { scan(file) }
+        .expireWith(project)
+        .executeSynchronously()
+        ?.let { scanned.add(it) }
+      indicator.fraction = done.incrementAndGet().toDouble() / files.size
+      true
+    }
+
+    indicator.text = title
+    for (fileEdits in scanned.sortedBy { it.file.path }) {
+      indicator.checkCanceled()
+      indicator.text2 = fileEdits.file.presentableUrl
+      ApplicationManager.getApplication().invokeAndWait {
+        val count = apply(fileEdits)
+        if (count > 0) applied.add(fileEdits.file to count)
+      }
+    }
+  }
+
+  private fun collectFiles(): List<VirtualFile> {
+    // once indexed, only the files holding logs are visited
+    if (!DumbService.isDumb(project)) {
+      return ConsoleLoggerLogIndex.getFilesWithLogs(project, GlobalSearchScope.projectScope(project))
+        .filter { it.isWritable }
+    }
+    // the same files as the index, so the edits do not depend on the indexing state
+    val files = mutableListOf<VirtualFile>()
+    ProjectFileIndex.getInstance(project).iterateContent { file ->
+      if (!file.isDirectory && file.extension?.lowercase() in ConsoleLoggerLogIndex.EXTENSIONS &&
+        file.isWritable && !FileUtilRt.isTooLarge(file.length)) {
+        files.add(file)
+      }
+      true
+    }
+    return files
+  }
+
+  private fun scan(file: VirtualFile): FileEdits<T>? {
+    if (!file.isValid) return null
+    // prefer the open document, unsaved changes included, and avoid creating documents for untouched files
+    val document = FileDocumentManager.getInstance().getCachedDocument(file)
+    val text = document?.immutableCharSequence ?: LoadTextUtil.loadText(file)
+    val edits = findEdits(text)
+    if (edits.isEmpty()) return null
+    return FileEdits(file, document?.modificationStamp ?: file.modificationStamp, edits)
+  }
+
+  private fun apply(fileEdits: FileEdits<T>): Int {
+    if (!fileEdits.file.isValid) return 0
+    val document = FileDocumentManager.getInstance().getDocument(fileEdits.file) ?: return 0
+    var count = 0
+    WriteCommandAction.writeCommandAction(project)
+      .withName(commandName)
+      .run<RuntimeException> {
+        // the file changed since it was scanned: search it again
+        val edits = if (document.modificationStamp == fileEdits.stamp) {
+          fileEdits.edits
+        } else {
+          findEdits(document.immutableCharSequence)
+        }
+        applyEdits(document, edits)
+        count = edits.size
+      }
+    return count
+  }
+
+  override fun onCancel() {
+    cancelled = true
+  }
+
+  override fun onFinished() {
+    val total = applied.sumOf { it.second }
+    val baseDir = project.guessProjectDir()
+    val details = applied.joinToString("<br>") { (file, count) ->
+      val path = baseDir?.let { VfsUtilCore.getRelativePath(file, it) } ?: file.presentableUrl
+      "$path: $count"
+    }
+    val notification = createNotification(
+      summaryTitle(total, applied.size) + if (cancelled) " (cancelled)" else "",
+      details.ifEmpty { "No logs found." },
+      NotificationType.INFORMATION
+    )
+    showFullNotification(project, notification)
+  }
+}
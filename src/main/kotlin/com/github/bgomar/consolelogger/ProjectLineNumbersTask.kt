@@ -0,0 +1,24 @@
+package com.github.bgomar.consolelogger
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.project.Project
+import com.intellij.util.DocumentUtil
+
+/**
+ * Corrects the `Line: N` fragments of the generated logs of every file of the project in the background.
+ * All the corrections of a file are computed in one pass and applied in a single bulk update.
+ */
+class ProjectLineNumbersTask(
+  project: Project,
+) : ProjectFileBatchTask<LogLineNumbers.Correction>(project, "Updating ConsoleLogger's line numbers", "Update ConsoleLogger's Line Numbers") {
+
+  override fun findEdits(text: CharSequence): List<LogLineNumbers.Correction> = LogLineNumbers.findCorrections(text)
+
+  override fun applyEdits(document: Document, edits: List<LogLineNumbers.Correction>) {
+    DocumentUtil.executeInBulk(document, true) {
+      LogLineNumbers.applyCorrections(document, edits)
+    }
+  }
+
+  override fun summaryTitle(total: Int, files: Int) = "Updated $total ConsoleLogger's line numbers in $files files"
+}
@@ -0,0 +1,20 @@
+package com.github.bgomar.consolelogger
+
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.TextRange
+
+/**
+ * Removes the generated logs from every file of the project in the background.
+ */
+class ProjectLogRemovalTask(
+  project: Project,
+  private val engine: LogRemovalEngine,
+) : ProjectFileBatchTask<TextRange>(project, "Removing ConsoleLogger's logs", "Remove ConsoleLogger's Logs") {
+
+  override fun findEdits(text: CharSequence): List<TextRange> = engine.findLogLines(text)
+
+  override fun applyEdits(document: Document, edits: List<TextRange>) = engine.deleteLines(document, edits)
+
+  override fun summaryTitle(total: Int, files: Int) = "Removed $total ConsoleLogger's logs in $files files"
+}
@@ -0,0 +1,284 @@
+package com.github.bgomar.consolelogger
+
+import com.intellij.lang.javascript.JavascriptLanguage
+import com.intellij.lang.javascript.psi.JSBlockStatement
+import com.intellij.lang.javascript.psi.JSElement
+import com.intellij.lang.javascript.psi.JSFunctionExpression
+import com.intellij.lang.javascript.psi.JSIfStatement
+import com.intellij.notification.NotificationType
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.Task
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiFileFactory
+import com.intellij.psi.SyntaxTraverser
+
+/**
+ * Internal action measuring the insertion point resolution on a deeply nested generated file, against
+ * [StringTypedResolver], the resolver as it was when it compared the element type names.
+ * It runs in the background, each round in its own read action.
+ */
+class ResolverBenchmarkAction : AnAction() {
+
+  override fun actionPerformed(e: AnActionEvent) {
+    val project = e.project ?: return
+    object : Task.Backgroundable(project, "Benchmarking insertion point resolution", true) {
+      private var content = ""
+
+      override fun run(indicator: ProgressIndicator) {
+        val psiFile = ReadAction.compute<PsiFile, RuntimeException> {
+          PsiFileFactory.getInstance(project).createFileFromText("benchmark.ts", JavascriptLanguage.INSTANCE, deepSource(DEPTH))
+        }
+        val offsets = ReadAction.compute<List<Int>, RuntimeException> {
+          SyntaxTraverser.psiTraverser(psiFile).toList().filter { JsElementKinds.kindOf(it) == JsKind.IDENTIFIER }.map { it.textOffset }
+        }
+
+        val current = { offset: Int -> InsertionTargetResolver.resolveInsertionTarget(psiFile, offset, -1, null) }
+        val former = { offset: Int -> StringTypedResolver.resolveInsertionTarget(psiFile, offset, -1, null) }
+
+        // warm up both paths before measuring
+        repeat(WARMUP) {
+          indicator.checkCanceled()
+          resolveAll(offsets, current)
+          resolveAll(offsets, former)
+        }
+        val byKind = measure(indicator, offsets, current)
+        val byName = measure(indicator, offsets, former)
+
+        content = "${offsets.size} carets, depth $DEPTH<br>" +
+          "resolve by element type name (former): ${byName / 1000} µs per caret<br>" +
+          "resolve by element type identity: ${byKind / 1000} µs per caret"
+      }
+
+      override fun onSuccess() {
+        showFullNotification(project, createNotification("Insertion point benchmark", content, NotificationType.INFORMATION))
+      }
+    }.queue()
+  }
+
+  // nanoseconds per caret
+  private fun measure(indicator: ProgressIndicator, offsets: List<Int>, resolve: (Int) -> InsertionTarget?): Long {
+    var elapsed = 0L
+    repeat(ROUNDS) {
+      indicator.checkCanceled()
+      elapsed += resolveAll(offsets, resolve)
+    }
+    return elapsed / ROUNDS / offsets.size.coerceAtLeast(1)
+  }
+
+  // one read action per round, so the benchmark does not hold off the writes for its whole length
+  private fun resolveAll(offsets: List<Int>, resolve: (Int) -> InsertionTarget?): Long =
+    ReadAction.compute<Long, RuntimeException> {
+      val started = System.nanoTime()
+      offsets.forEach { resolve(it) }
+      System.nanoTime() - started
+    }
+
+  /**
+   * Nested functions and conditions, each level declaring and using a variable.
+   */
+  private fun deepSource(depth: Int): String {
+    val source = StringBuilder()
+    for (level in 0 until depth) {
+      val indent = "  ".repeat(level)
+      source.append(indent).append("const fn$level = (arg$level) => {\n")
+      source.append(indent).append("  const value$level = arg$level.items[$level] + $level;\n")
+      source.append(indent).append("  if (value$level > $level) {\n")
+      source.append(indent).append("    console.info(value$level, arg$level);\n")
+      source.append(indent).append("  }\n")
+    }
+    for (level in depth - 1 downTo 0) {
+      source.append("  ".repeat(level)).append("};\n")
+    }
+    return source.toString()
+  }
+
+  /**
+   * The insertion point resolution as it was before [JsElementKinds], kept unchanged as the baseline.
+   */
+  private object StringTypedResolver {
+
+    /**
+     * search for the insertion point of a caret, without moving it
+     * return where to insert and the name of the element to log
+     */
+    fun resolveInsertionTarget(psiFile: PsiFile, caretOffset: Int, selectionStart: Int, selectedText: String?): InsertionTarget? {
+      val valueToLog: String
+      val element: PsiElement?
+      val offset: Int
+
+      // If the user has selected text (e.g., a variable)
+      if (selectionStart >= 0) {
+        offset = selectionStart
+        element = psiFile.findElementAt(offset)
+        valueToLog = selectedText ?: "<CR>"
+      } else {
+        offset = caretOffset
+        val elementAtCursor = psiFile.findElementAt(offset)
+
+        // on an empty line, log right there
+        if (elementAtCursor?.text?.replace(" ", "")?.endsWith("\n\n") == true) return InsertionTarget(caretOffset, "", false)
+
+        element = findElementToLogForSelection(elementAtCursor ?: return null)
+        valueToLog = element?.text?.replace(" ", "") ?: "<CR>"
+      }
+
+      if (valueToLog.startsWith("\n") && element?.hasParentOfType("JS:OBJECT_LITERAL", 2) != true) {
+        return InsertionTarget(caretOffset, "", true)
+      }
+
+      val block = findBlockForElement(element ?: psiFile.findElementAt(offset) ?: return null)
+
+      val insertionOffset = when {
+        // If it's an arrow function, insert inside the function body
+        block is JSFunctionExpression -> {
+          val body = block.childOfType(JSBlockStatement::class.java)
+          if (body != null) {
+            // Inside the block, after the opening '{'
+            body.textOffset + 1
+          } else {
+            // Handle the case where the arrow function has an expression body
+            // At the end of the expression
+            block.childOfType(JSElement::class.java)?.textRange?.endOffset ?: caretOffset
+          }
+        }
+        // For "if" statements, insert line above
+        block is JSIfStatement -> block.prevSibling.textRange.startOffset - 1
+        block != null -> block.textRange.endOffset
+        else -> caretOffset
+      }
+
+      return InsertionTarget(insertionOffset, valueToLog, true)
+    }
+
+    /**
+     * The element type name, the TypeScript variants of the PSI (e.g. `JS:TYPESCRIPT_VARIABLE`) named
+     * like their JavaScript counterpart.
+     */
+    private fun PsiElement.typeName(): String =
+      if (this is PsiFile) "FILE" else node.elementType.toString().replace("JS:TYPESCRIPT_", "JS:")
+
+    /**
+     * Finds a child of the specified type in the PSI tree.
+     */
+    private fun <T : PsiElement> PsiElement.childOfType(klass: Class<T>): T? {
+      return this.children.filterIsInstance(klass).firstOrNull()
+    }
+
+    /**
+     * find the block containing this element
+     */
+    private fun findBlockForElement(element: PsiElement?): PsiElement? {
+      var currentElement = element
+      while (currentElement != null) {
+        val elementType = currentElement.typeName()
+        val parentElementType = currentElement.parent?.typeName()
+
+        when {
+          elementType == "JS:EXPRESSION_STATEMENT" && parentElementType != "FILE" -> return currentElement
+          elementType == "JS:VAR_STATEMENT" -> return currentElement
+          elementType == "JS:IF_STATEMENT" -> return currentElement
+          elementType == "JS:BLOCK_STATEMENT" || elementType == "JS:FUNCTION" || elementType == "JS:FUNCTION_EXPRESSION" -> return currentElement
+          currentElement.text.trim() == "{" -> return currentElement
+          currentElement.text.trim() == "\n" -> return findBlockForElement(currentElement.prevSibling)
+        }
+        currentElement = currentElement.parent
+      }
+      return null
+    }
+
+    /**
+     * when the cursor is on a loggable identifier
+     */
+    private fun findElementToLogForSelection(
+      element: PsiElement
+    ): PsiElement? {
+
+      val elementType = element.typeName()
+      val parentElementType = element.parent.typeName()
+      when {
+        elementType == "WHITE_SPACE" && element.text.replace(" ", "").startsWith("\n\n") -> return null
+        element.prevSibling != null
+          && element.prevSibling.typeName() == "JS:DOT"
+        -> return findElementToLogForSelection(element.parent)
+
+        (elementType != "JS:IDENTIFIER"
+          && elementType != "JS:REFERENCE_EXPRESSION"
+          && elementType != "JS:BINARY_EXPRESSION")
+          || (parentElementType == "JS:REFERENCE_EXPRESSION" && elementType != "JS:IDENTIFIER")
+          || parentElementType == "JS:PROPERTY"
+        -> {
+          val block = findBlockForElement(element)
+          return when {
+            element.text.trim(' ') == "\n" && (element.prevSibling?.lastChild?.text == ";") -> null
+            block?.text?.trim() == "{" -> null
+            block?.typeName() == "JS:IF_STATEMENT" -> element.prevSibling?.let {
+              findElementToLogForSelection(
+                element.prevSibling
+              )
+            } ?: element
+            else -> findElementToLogForBlock(block)
+          }
+        }
+
+        elementType == "JS:IDENTIFIER" && parentElementType == "JS:VARIABLE" -> return findElementToLogForBlock(
+          element
+        )
+        elementType == "JS:REFERENCE_EXPRESSION"
+          && parentElementType != "JS:BINARY_EXPRESSION" -> {
+          return findElementToLogForSelection(element.parent)
+        }
+
+        (elementType == "JS:IDENTIFIER"
+          && !element.hasParentOfType("JS:ARGUMENT_LIST", 2)
+          && element.hasParentOfType("JS:CALL_EXPRESSION", 2))
+          && element.prevSibling == null -> return null
+      }
+
+      return element
+    }
+
+    /**
+     * find the element to log inside a given block
+     */
+    private fun findElementToLogForBlock(element: PsiElement?): PsiElement? {
+      element ?: return null
+      val elementType = element.typeName()
+      val parentType = element.parent.typeName()
+
+      when {
+        (elementType == "JS:IDENTIFIER" && parentType != "JS:PROPERTY")
+          || elementType == "JS:DEFINITION_EXPRESSION"
+          || (elementType == "JS:REFERENCE_EXPRESSION" && parentType == "JS:REFERENCE_EXPRESSION")
+        -> return element
+        elementType == "JS:VARIABLE" -> return element.firstChild
+        elementType == "JS:CALL_EXPRESSION" -> return null
+      }
+
+      if (element.firstChild == null) {
+        return findElementToLogForBlock(element.nextSibling)
+      }
+
+      return findElementToLogForBlock(element.firstChild)
+    }
+
+    private fun PsiElement.hasParentOfType(type: String, maxRecursion: Int, recursionLevel: Int = 0): Boolean {
+      return if (this.parent.typeName() == type) {
+        true
+      } else {
+        return if (this.parent.typeName() != "FILE" && recursionLevel < maxRecursion)
+          this.parent.hasParentOfType(type, maxRecursion, recursionLevel + 1)
+        else false
+      }
+    }
+  }
+
+  companion object {
+    private const val DEPTH = 200
+    private const val WARMUP = 3
+    private const val ROUNDS = 10
+  }
+}
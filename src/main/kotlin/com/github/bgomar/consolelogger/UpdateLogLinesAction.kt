@@ -24,28 +24,12 @@ class UpdateLogLinesAction : AnAction() {
 
         val document: Document = editor.document
 
-        // Regex pattern to find log statements with line numbers
-        val logPattern = Regex("""console\.log\(".*Line: \d+.*"""")
+        // Only the log statements whose line number is wrong are rewritten
+        val corrections = LogLineNumbers.findCorrections(document)
+        if (corrections.isEmpty()) return
 
         WriteCommandAction.runWriteCommandAction(project) {
-            // Iterate through the document, updating line numbers
-            for (line in 0 until document.lineCount) {
-                val lineStart = document.getLineStartOffset(line)
-                val lineEnd = document.getLineEndOffset(line)
-                val text = document.getText().substring(lineStart, lineEnd)
-
-                // Check if the line contains a logger with a line number
-                if (logPattern.containsMatchIn(text)) {
-                    val newLineText = updateLogLine(text, line + 1)
-                    document.replaceString(lineStart, lineEnd, newLineText)
-                }
-            }
+            LogLineNumbers.applyCorrections(document, corrections)
         }
     }
-
-    // Helper function to update the log line text with the correct line number
-    private fun updateLogLine(logText: String, lineNumber: Int): String {
-        // Replace the old line number with the new one
-        return logText.replace(Regex("""Line: \d+"""), "Line: $lineNumber")
-    }
 }
@@ -0,0 +1,16 @@
+package com.github.bgomar.consolelogger
+
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.progress.ProgressManager
+
+/**
+ * Corrects the line numbers of the generated logs in all the files of the project.
+ */
+class UpdateProjectLogLinesAction : AnAction() {
+
+    override fun actionPerformed(e: AnActionEvent) {
+        val project = e.project ?: return
+        ProgressManager.getInstance().run(ProjectLineNumbersTask(project))
+    }
+}